@@ -0,0 +1,32 @@
+package com.zenmgt.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Async request handling for streamed responses
+ * The Tomcat worker is released once the controller returns; the body is written on the
+ * streaming executor, bounded by the async request timeout.
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor streamingTaskExecutor;
+    private final long asyncRequestTimeoutMs;
+
+    public AsyncWebConfig(@Qualifier("streamingTaskExecutor") AsyncTaskExecutor streamingTaskExecutor,
+                          @Value("${app.async.request-timeout-ms:1800000}") long asyncRequestTimeoutMs) {
+        this.streamingTaskExecutor = streamingTaskExecutor;
+        this.asyncRequestTimeoutMs = asyncRequestTimeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingTaskExecutor);
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 /**
  * Cache configuration for application-wide caching
  * Includes enum caching for performance optimization
+ * User search results are cached separately by UserSearchResultCache (bounded, generation-invalidated)
  */
 @Configuration
 @EnableCaching
@@ -21,7 +22,6 @@ public class CacheConfig {
         // Define cache names
         cacheManager.setCacheNames(java.util.List.of(
             "enumCache",
-            "userCache",
             "sessionCache"
         ));
         
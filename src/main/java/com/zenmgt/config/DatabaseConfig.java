@@ -56,6 +56,10 @@ public class DatabaseConfig {
         config.addDataSourceProperty("elideSetAutoCommits", "true");
         config.addDataSourceProperty("maintainTimeStats", "false");
         
+        // The user aggregate query returns group memberships with GROUP_CONCAT, which the server
+        // silently truncates at 1024 bytes (about 60 IDs) by default; 1 MiB holds over 50,000
+        config.setConnectionInitSql("SET SESSION group_concat_max_len = 1048576");
+        
         // Thread safety and validation
         config.setValidationTimeout(5000);           // 5 seconds validation timeout
         config.setConnectionTestQuery("SELECT 1");
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpMethod;
 
 import com.zenmgt.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Arrays;
@@ -40,6 +41,8 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
 
+    private final SecurityPathProperties securityPathProperties;
+
     @Value("${spring.security.oauth2.enabled:false}")
     private boolean oauth2Enabled;
 
@@ -53,30 +56,6 @@ public class SecurityConfig {
         "/webjars/**"
     };
 
-    private static final String[] PUBLIC_ENDPOINTS = {
-        "/mgt/v1/auth/login",
-        "/mgt/v1/auth/oauth2/login",
-        "/mgt/v1/auth/oauth2/login/success",
-        "/mgt/v1/auth/oauth2/login/failure",
-        "/mgt/v1/auth/config",
-        "/mgt/v1/enums/test",
-        "/mgt/v1/enums/test-all",
-        "/mgt/v1/users/test-search",
-        "/mgt/v1/users/*/test-toggle-status",
-        "/mgt/v1/users/*/test-reset-password",
-        "/mgt/v1/users/*/test-reset-mfa",
-        "/mgt/v1/users/*/test-toggle-mfa-admin",
-        "/mgt/v1/users/*/test-security-status",
-        "/error"
-    };
-
-    private static final String[] MFA_PUBLIC_ENDPOINTS = {
-        "/mgt/v1/mfa/setup/init",
-        "/mgt/v1/mfa/setup/init/**",
-        "/mgt/v1/mfa/setup/verify",
-        "/mgt/v1/mfa/verify"
-    };
-
     @Bean
     public ErrorAttributes errorAttributes() {
         return new DefaultErrorAttributes() {
@@ -138,12 +117,11 @@ public class SecurityConfig {
                 .authenticationEntryPoint(authenticationEntryPoint())
                 .accessDeniedHandler(accessDeniedHandler()))
             .authorizeHttpRequests(auth -> {
-                auth.requestMatchers("/mgt/v1/mfa/setup/init").permitAll();
-                auth.requestMatchers("/mgt/v1/mfa/setup/init/**").permitAll();
-                auth.requestMatchers(MFA_PUBLIC_ENDPOINTS).permitAll();
+                // The request was authorized when it started; the async dispatch only completes a streamed response
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+                auth.requestMatchers(securityPathProperties.getMfaPublicPaths().toArray(String[]::new)).permitAll();
                 auth.requestMatchers(SWAGGER_WHITELIST).permitAll();
-                auth.requestMatchers(PUBLIC_ENDPOINTS).permitAll();
-                auth.requestMatchers("/health").permitAll();
+                auth.requestMatchers(securityPathProperties.getPublicPaths().toArray(String[]::new)).permitAll();
                 auth.anyRequest().authenticated();
             })
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
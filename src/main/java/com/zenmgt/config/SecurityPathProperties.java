@@ -0,0 +1,37 @@
+package com.zenmgt.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paths that bypass JWT authentication, externalized under app.security
+ * Shared by SecurityConfig (permitAll) and JwtAuthenticationFilter (skip filter)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.security")
+public class SecurityPathProperties {
+
+    /**
+     * Public API paths (Ant-style patterns)
+     */
+    private List<String> publicPaths = new ArrayList<>();
+
+    /**
+     * MFA setup/verification paths reachable before a full login
+     */
+    private List<String> mfaPublicPaths = new ArrayList<>();
+
+    /**
+     * All paths that skip JWT authentication
+     */
+    public List<String> getAllPublicPaths() {
+        List<String> all = new ArrayList<>(mfaPublicPaths);
+        all.addAll(publicPaths);
+        return all;
+    }
+}
@@ -107,6 +107,25 @@ public class ThreadPoolConfig {
         return executor;
     }
 
+    /**
+     * Executor for streamed MVC responses (StreamingResponseBody), such as the user export,
+     * so long downloads run off the Tomcat worker threads
+     */
+    @Bean(name = "streamingTaskExecutor")
+    public ThreadPoolTaskExecutor streamingTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("ZenMgt-Stream-");
+        executor.setThreadFactory(customThreadFactory());
+        executor.setTaskDecorator(mdcTaskDecorator()); // Add MDC propagation
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * Custom thread factory implementation
      */
@@ -0,0 +1,26 @@
+package com.zenmgt.config;
+
+import com.zenmgt.service.RedisTokenBlacklistService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes the Redis token blacklist to revocation events from other instances
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.token-blacklist.store", havingValue = "redis")
+public class TokenBlacklistRedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer tokenBlacklistListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         RedisTokenBlacklistService blacklistService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(blacklistService, new ChannelTopic(RedisTokenBlacklistService.EVENTS_CHANNEL));
+        return container;
+    }
+}
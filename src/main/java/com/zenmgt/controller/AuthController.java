@@ -191,4 +191,33 @@ public class AuthController {
                 .body(ApiResponse.error(ErrorCodes.INTERNAL_ERROR, "Logout failed: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Logout from all sessions
+     * Revokes every token issued to the current user, on all devices
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@RequestHeader("Authorization") String authorizationHeader) {
+        logger.info("Logout-all request received");
+        
+        try {
+            String token = null;
+            if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+                token = authorizationHeader.substring(7);
+            }
+            
+            if (token == null || token.trim().isEmpty()) {
+                logger.warn("Logout-all failed: No valid token provided");
+                return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(ErrorCodes.AUTH_INVALID_TOKEN, "No valid token provided for logout"));
+            }
+            
+            return authService.logoutAllSessions(token);
+            
+        } catch (Exception e) {
+            logger.error("Logout-all error: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                .body(ApiResponse.error(ErrorCodes.INTERNAL_ERROR, "Logout failed: " + e.getMessage()));
+        }
+    }
+}
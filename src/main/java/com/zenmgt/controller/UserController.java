@@ -2,26 +2,37 @@ package com.zenmgt.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.zenmgt.dto.ApiResponse;
+import com.zenmgt.dto.UserBatchGetRequestDTO;
 import com.zenmgt.dto.UserDTO;
 import com.zenmgt.dto.UserHashedDTO;
+import com.zenmgt.dto.UserImportResultDTO;
 import com.zenmgt.dto.UserPagedResponseDTO;
 import com.zenmgt.dto.UserSearchCriteria;
 import com.zenmgt.dto.PagedResponseDTO;
 import com.zenmgt.enums.ErrorCodes;
 import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.enums.UserExportFormat;
+import com.zenmgt.enums.UserSearchMatchMode;
 import com.zenmgt.exception.BusinessException;
 import com.zenmgt.exception.ValidationException;
 import com.zenmgt.model.AuthUser;
+import com.zenmgt.service.UserExportService;
+import com.zenmgt.service.UserImportService;
+import com.zenmgt.service.UserProjectionService;
 import com.zenmgt.service.UserService;
 import com.zenmgt.util.SecurityContextUtil;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +51,9 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final UserProjectionService userProjectionService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
     private final SecurityContextUtil securityContextUtil;
 
     /**
@@ -66,18 +80,26 @@ public class UserController {
             @RequestParam(required = false) Integer[] activeStates,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection,
-            @RequestParam(defaultValue = "false") boolean includeGroupCount) {
+            @RequestParam(defaultValue = "false") boolean includeGroupCount,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
 
         try {
             Page<UserHashedDTO> pageRequest = new Page<>(page, size);
             UserSearchCriteria criteria = userService.buildSearchCriteria(
                 search, username, email, userCode, activeStates, sortBy, sortDirection, page, size);
+            criteria.setKeyset(keyset);
+            criteria.setCursor(cursor);
+            criteria.setIncludeTotal(includeTotal);
 
             UserPagedResponseDTO<UserHashedDTO> result = userService.searchUsersPaginated(
                 pageRequest, criteria, includeGroupCount);
 
             return ApiResponse.success(result, "Users retrieved successfully");
 
+        } catch (BusinessException | ValidationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error retrieving users: {}", e.getMessage(), e);
             throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to retrieve users");
@@ -105,6 +127,24 @@ public class UserController {
         }
     }
 
+    /**
+     * Resolve several users at once, e.g. the createdBy/updatedBy and approver IDs of a page.
+     * Returns the users keyed by the encrypted ID they were requested with; unknown IDs are left out.
+     */
+    @PostMapping("/batch-get")
+    public ApiResponse<Map<String, UserHashedDTO>> batchGetUsers(@Valid @RequestBody UserBatchGetRequestDTO request) {
+        try {
+            Map<String, UserHashedDTO> users = userService.getUsersHashedByEncryptedIds(request.getEncryptedUserIds());
+            return ApiResponse.success(users, "Users retrieved successfully");
+
+        } catch (BusinessException | ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error retrieving users in batch: {}", e.getMessage(), e);
+            throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to retrieve users");
+        }
+    }
+
     @GetMapping("/by-code/{userCode}")
     public ApiResponse<UserHashedDTO> getUserByCode(@PathVariable String userCode) {
         try {
@@ -146,6 +186,33 @@ public class UserController {
         }
     }
 
+    /**
+     * Create users in bulk from a CSV (header row first) or NDJSON upload, chosen by Content-Type.
+     * The body is read as a stream and committed in chunks of app.user-import.chunk-size;
+     * rejected rows are listed in the result and do not stop the import.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ApiResponse<UserImportResultDTO> importUsers(
+            HttpServletRequest request,
+            @RequestHeader("X-Current-User") String hashedCurrentUserId) {
+
+        UserExportFormat importFormat = UserExportFormat.fromContentType(request.getContentType());
+        if (importFormat == null) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED, "Unsupported import content type: " + request.getContentType());
+        }
+
+        try {
+            UserImportResultDTO result = userImportService.importUsers(request.getInputStream(), importFormat, hashedCurrentUserId);
+            return ApiResponse.success(result, "User import completed");
+
+        } catch (ValidationException | BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error importing users: {}", e.getMessage(), e);
+            throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to import users");
+        }
+    }
+
     @PutMapping("/{encryptedUserId}")
     public ApiResponse<UserDTO> updateUser(
             @PathVariable String encryptedUserId,
@@ -431,6 +498,11 @@ public class UserController {
     
     /**
      * Search users with record status filtering (enhanced version)
+     * With keyset=true (or a cursor) pages are fetched by seeking past the previous page's last row;
+     * pass the returned nextCursor to get the next page, and includeTotal=false to skip the count.
+     * With globalSearch, sortBy=relevance ranks exact and prefix matches first (offset pages only).
+     * userCode, username and email match as matchMode=contains (default), prefix or exact (also exactMatch=true);
+     * prefix and exact use the column indexes, and caseSensitive=true narrows any mode to the exact case.
      */
     @GetMapping("/search")
     public ApiResponse<UserPagedResponseDTO<UserDTO>> searchUsersWithStatus(
@@ -448,8 +520,12 @@ public class UserController {
             @RequestParam(defaultValue = "desc") String sortDirection,
             @RequestParam(required = false) String sortDir,
             @RequestParam(required = false) String recordStatus,
+            @RequestParam(defaultValue = "contains") String matchMode,
             @RequestParam(defaultValue = "false") boolean exactMatch,
-            @RequestParam(defaultValue = "false") boolean caseSensitive) {
+            @RequestParam(defaultValue = "false") boolean caseSensitive,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
 
         try {
             // Use sortDir if provided, otherwise use sortDirection
@@ -465,8 +541,12 @@ public class UserController {
                 .recordStatus(recordStatus)
                 .sortBy(sortBy)
                 .sortDirection(finalSortDirection)
+                .matchMode(UserSearchMatchMode.fromParam(matchMode))
                 .exactMatch(exactMatch)
                 .caseSensitive(caseSensitive)
+                .keyset(keyset)
+                .cursor(cursor)
+                .includeTotal(includeTotal)
                 .build();
 
             // Convert date strings to LocalDateTime if provided - handle both date-only and datetime formats
@@ -490,12 +570,73 @@ public class UserController {
             
             return ApiResponse.success(userPagedResult, "Users searched successfully");
 
+        } catch (BusinessException | ValidationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error searching users: {}", e.getMessage(), e);
             throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to search users");
         }
     }
     
+    /**
+     * Export every user matching the search filters as CSV or NDJSON.
+     * The body is streamed from a database cursor on the streaming executor, so neither the heap
+     * nor a Tomcat worker is held for the size of the export. Errors after the first bytes are sent
+     * can only be logged; the client sees a truncated download.
+     */
+    @GetMapping(value = "/export", produces = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String userCode,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String globalSearch,
+            @RequestParam(required = false) String createdDateFrom,
+            @RequestParam(required = false) String createdDateTo,
+            @RequestParam(required = false) String lastLoginFrom,
+            @RequestParam(required = false) String lastLoginTo,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) String recordStatus) {
+
+        UserExportFormat exportFormat = UserExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED, "Unsupported export format: " + format);
+        }
+
+        UserSearchCriteria criteria = UserSearchCriteria.builder()
+            .userCode(userCode)
+            .username(username)
+            .email(email)
+            .globalSearch(globalSearch)
+            .recordStatus(recordStatus)
+            .sortBy(sortBy)
+            .sortDirection(sortDirection)
+            .createdDateFrom(parseDateTime(createdDateFrom, true))
+            .createdDateTo(parseDateTime(createdDateTo, false))
+            .lastLoginFrom(parseDateTime(lastLoginFrom, true))
+            .lastLoginTo(parseDateTime(lastLoginTo, false))
+            .build();
+
+        StreamingResponseBody body = out -> {
+            try {
+                userExportService.exportUsers(criteria, exportFormat, out);
+            } catch (IOException e) {
+                log.warn("User export aborted: {}", e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                log.error("Error exporting users: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+
+        String filename = "users-" + java.time.LocalDate.now() + "." + exportFormat.getParam();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+
     /**
      * Parse date/datetime string to LocalDateTime
      * @param dateTimeStr The date or datetime string
@@ -645,8 +786,12 @@ public class UserController {
             @RequestParam(defaultValue = "desc") String sortDirection,
             @RequestParam(required = false) String sortDir,
             @RequestParam(required = false) String recordStatus,
+            @RequestParam(defaultValue = "contains") String matchMode,
             @RequestParam(defaultValue = "false") boolean exactMatch,
-            @RequestParam(defaultValue = "false") boolean caseSensitive) {
+            @RequestParam(defaultValue = "false") boolean caseSensitive,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
 
         try {
             // Use sortDir if provided, otherwise use sortDirection
@@ -662,8 +807,12 @@ public class UserController {
                 .recordStatus(recordStatus)
                 .sortBy(sortBy)
                 .sortDirection(finalSortDirection)
+                .matchMode(UserSearchMatchMode.fromParam(matchMode))
                 .exactMatch(exactMatch)
                 .caseSensitive(caseSensitive)
+                .keyset(keyset)
+                .cursor(cursor)
+                .includeTotal(includeTotal)
                 .build();
 
             // Convert date strings to LocalDateTime if provided - handle both date-only and datetime formats
@@ -786,6 +935,42 @@ public class UserController {
         }
     }
 
+    /**
+     * Log a user out everywhere - revokes every token issued to the user so far
+     */
+    @PatchMapping("/{encryptedUserId}/revoke-sessions")
+    public ApiResponse<Map<String, Object>> revokeUserSessions(
+            @PathVariable String encryptedUserId,
+            @RequestHeader("X-Current-User") String hashedCurrentUserId) {
+        
+        try {
+            Map<String, Object> result = userService.revokeUserSessions(encryptedUserId, hashedCurrentUserId);
+            return ApiResponse.success(result, "User sessions revoked successfully");
+            
+        } catch (BusinessException | ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error revoking sessions for user {}: {}", encryptedUserId, e.getMessage(), e);
+            throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to revoke user sessions");
+        }
+    }
+
+    /**
+     * Rebuild the auth_user_current read model from the source tables,
+     * e.g. after rows were changed outside the application
+     */
+    @PostMapping("/projection/rebuild")
+    public ApiResponse<Map<String, Object>> rebuildUserProjection() {
+        try {
+            int projected = userProjectionService.rebuild();
+            return ApiResponse.success(Map.of("projectedUsers", projected), "User projection rebuilt successfully");
+            
+        } catch (Exception e) {
+            log.error("Error rebuilding user projection: {}", e.getMessage(), e);
+            throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to rebuild user projection");
+        }
+    }
+
     /**
      * Get user security status (password and MFA info)
      */
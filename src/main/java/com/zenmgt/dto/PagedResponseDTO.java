@@ -1,5 +1,6 @@
 package com.zenmgt.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,11 +27,20 @@ import java.util.List;
 public class PagedResponseDTO<T> {
     
     private List<T> data;         // Generic data array (will be serialized with custom name)
-    private long total;           // Total number of records across all pages
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;           // Total number of records across all pages (null when not counted)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalExact;   // false when total is an estimate from maintained counters
     private int page;             // Current page number (1-based)
     private int totalPages;       // Total number of pages
     private int pageSize;         // Number of items per page
     
+    // Keyset pagination only
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;    // Opaque token for the next page; null on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasMore;      // Whether another page follows
+    
     /**
      * Create a PagedResponseDTO from Spring Data Page object
      * @param springPage The Spring Data Page object
@@ -56,7 +66,7 @@ public class PagedResponseDTO<T> {
     public static <T> PagedResponseDTO<T> from(List<T> data) {
         return PagedResponseDTO.<T>builder()
                 .data(data)
-                .total(data.size())
+                .total((long) data.size())
                 .page(1)
                 .totalPages(1)
                 .pageSize(data.size())
@@ -0,0 +1,52 @@
+package com.zenmgt.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user's current state (master row and active detail) together with its credential flags
+ * and group memberships, as loaded in one query by UserAggregateLoader.
+ * Carries flags only; no password hash or MFA secret leaves the repository.
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class UserAggregateDTO extends UserDTO {
+
+    // Credential flags; all false when the user has no credential row
+    private boolean hasCredential;
+    private boolean hasPassword;
+    private boolean mfaEnabled;
+    private boolean mfaEnforced;
+    private boolean hasMfaSecret;
+    private boolean hasRecoveryCodes;
+    private LocalDateTime credentialUpdatedAt;
+
+    // IDs of the user groups the user is a member of, ascending
+    @Builder.Default
+    private List<Long> groupIds = new ArrayList<>();
+
+    /**
+     * Set the group IDs from the comma-separated list the aggregate query returns
+     */
+    @JsonIgnore
+    public void setGroupIdList(String groupIdList) {
+        groupIds = new ArrayList<>();
+        if (groupIdList != null && !groupIdList.isEmpty()) {
+            for (String groupId : groupIdList.split(",")) {
+                groupIds.add(Long.valueOf(groupId));
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.zenmgt.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Batch Get Request DTO
+ * Encrypted IDs of the users to resolve in one call; the upper bound is app.user-batch-get.max-ids
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchGetRequestDTO {
+
+    @NotEmpty(message = "At least one encrypted user ID is required")
+    private List<String> encryptedUserIds;
+}
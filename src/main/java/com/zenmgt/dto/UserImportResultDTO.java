@@ -0,0 +1,39 @@
+package com.zenmgt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import: counts plus one entry per rejected row
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResultDTO {
+
+    private long totalRows;
+    private long createdCount;
+    private long failedCount;
+    private long durationMs;
+
+    // Rejected rows in input order; capped at app.user-import.max-errors, failedCount is always complete
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;      // Line of the row in the uploaded file (1-based; the CSV header is line 1)
+        private String field;   // Offending field, or null when the whole row failed
+        private String code;    // ErrorCodes code
+        private String message;
+    }
+}
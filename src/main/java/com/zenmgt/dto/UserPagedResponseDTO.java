@@ -1,5 +1,6 @@
 package com.zenmgt.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,8 @@ import java.util.List;
 /**
  * Specialized pagination response for Users module
  * JSON output: { "users": [...], "total": 1250, "page": 1, "totalPages": 50 }
+ * Keyset pages add "nextCursor" and "hasMore"; "total" is omitted when it was not counted,
+ * and "totalExact" is false when it was estimated.
  */
 @Data
 @NoArgsConstructor
@@ -18,18 +21,28 @@ import java.util.List;
 @Builder
 public class UserPagedResponseDTO<T> {
     private List<T> users;
-    private long total;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalExact;
     private int page;
     private int totalPages;
     private int pageSize;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasMore;
     
     public static <T> UserPagedResponseDTO<T> from(PagedResponseDTO<T> genericPage) {
         return UserPagedResponseDTO.<T>builder()
                 .users(genericPage.getData())
                 .total(genericPage.getTotal())
+                .totalExact(genericPage.getTotalExact())
                 .page(genericPage.getPage())
                 .totalPages(genericPage.getTotalPages())
                 .pageSize(genericPage.getPageSize())
+                .nextCursor(genericPage.getNextCursor())
+                .hasMore(genericPage.getHasMore())
                 .build();
     }
 } 
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.zenmgt.dto;
 
 import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.enums.UserSearchMatchMode;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,6 +31,13 @@ public class UserSearchCriteria {
     @Builder.Default
     private String sortDirection = "desc";
     
+    // Keyset pagination: seek past the row encoded in cursor instead of using OFFSET
+    @Builder.Default
+    private boolean keyset = false;
+    private String cursor;
+    @Builder.Default
+    private boolean includeTotal = true;
+    
     // Text-based searches (supports LIKE patterns)
     private String userCode;
     private String username;
@@ -37,6 +46,10 @@ public class UserSearchCriteria {
     // Global text search (searches across all text fields)
     private String globalSearch;
     
+    // Set by the service when UserSearchIndex resolved globalSearch; not a request parameter
+    @ToString.Exclude
+    private List<Long> matchedUserIds;
+    
     // Status-based filters
     private String recordStatus;
     private List<RecordStatus> recordStatuses;
@@ -53,9 +66,11 @@ public class UserSearchCriteria {
     private Long createdBy;
     private Long updatedBy;
     
-    // Search options
+    // Search options for the userCode, username and email filters
     @Builder.Default
-    private boolean exactMatch = false; // If true, use = instead of LIKE
+    private UserSearchMatchMode matchMode = UserSearchMatchMode.CONTAINS;
+    @Builder.Default
+    private boolean exactMatch = false; // If true, use = instead of LIKE whatever the matchMode
     @Builder.Default
     private boolean caseSensitive = false;
     
@@ -72,11 +87,98 @@ public class UserSearchCriteria {
     }
     
     /**
-     * Get LIKE pattern for text searches
+     * Whether any filter other than record status applies, i.e. the conditions of
+     * UserRepository.SEARCH_FILTERS besides the two status filters. Without one, a total is just
+     * a sum of per-status counts (UserSearchCounter); keep the two lists in step.
      */
-    public String getLikePattern(String value) {
+    public boolean hasRowFilters() {
+        return hasText(userCode) || hasText(username) || hasText(email) || hasText(globalSearch) ||
+               createdDateFrom != null || createdDateTo != null ||
+               lastLoginFrom != null || lastLoginTo != null;
+    }
+    
+    /**
+     * Trim the text filters and drop blank ones, so surrounding whitespace neither
+     * narrows the search nor splits its cache entry
+     */
+    public void normalizeText() {
+        userCode = trimToNull(userCode);
+        username = trimToNull(username);
+        email = trimToNull(email);
+        globalSearch = trimToNull(globalSearch);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static String trimToNull(String value) {
         if (value == null) return null;
-        return exactMatch ? value : "%" + value + "%";
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Codes of the recordStatuses filter, ordered and without duplicates; null when not filtering
+     */
+    public List<Integer> getRecordStatusCodes() {
+        if (recordStatuses == null || recordStatuses.isEmpty()) return null;
+        return recordStatuses.stream().map(RecordStatus::getCode).sorted().distinct().toList();
+    }
+    
+    /**
+     * Check if keyset (cursor) pagination is requested
+     */
+    public boolean isKeysetPagination() {
+        return keyset || (cursor != null && !cursor.isEmpty());
+    }
+    
+    /**
+     * Check if sorting is descending
+     */
+    public boolean isDescending() {
+        return !"asc".equalsIgnoreCase(sortDirection);
+    }
+    
+    /**
+     * Match mode in effect; exactMatch overrides matchMode
+     */
+    public UserSearchMatchMode getEffectiveMatchMode() {
+        if (exactMatch) return UserSearchMatchMode.EXACT;
+        return matchMode != null ? matchMode : UserSearchMatchMode.CONTAINS;
+    }
+    
+    /**
+     * SQL operator of the field filters, "=" or "LIKE"
+     */
+    public String getMatchOperator() {
+        return getEffectiveMatchMode().getOperator();
+    }
+    
+    /**
+     * Get the comparison value for a field filter under the effective match mode
+     */
+    public String getLikePattern(String value) {
+        return getEffectiveMatchMode().pattern(value);
+    }
+    
+    public String getUserCodePattern() {
+        return getLikePattern(userCode);
+    }
+    
+    public String getUsernamePattern() {
+        return getLikePattern(username);
+    }
+    
+    public String getEmailPattern() {
+        return getLikePattern(email);
+    }
+    
+    /**
+     * Global search always matches substrings
+     */
+    public String getGlobalSearchPattern() {
+        return UserSearchMatchMode.CONTAINS.pattern(globalSearch);
     }
     
     /**
@@ -0,0 +1,18 @@
+package com.zenmgt.dto;
+
+import com.zenmgt.enums.UserSortField;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position of the last row returned by a keyset page: its sort key and user ID.
+ * The next page seeks to rows strictly after (value, id) in the search order.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSearchCursor {
+    private final UserSortField sortField;
+    private final boolean descending;
+    private final Object value;
+    private final Long id;
+}
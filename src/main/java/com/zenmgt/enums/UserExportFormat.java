@@ -0,0 +1,47 @@
+package com.zenmgt.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Formats of the user export and the bulk user import
+ */
+@Getter
+@AllArgsConstructor
+public enum UserExportFormat {
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", "application/x-ndjson");
+
+    private final String param;
+    private final String contentType;
+
+    /**
+     * Get export format by request parameter
+     * @return The format, or null if not supported
+     */
+    public static UserExportFormat fromParam(String param) {
+        for (UserExportFormat format : values()) {
+            if (format.getParam().equalsIgnoreCase(param)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get format by request Content-Type, ignoring parameters such as charset
+     * @return The format, or null if not supported
+     */
+    public static UserExportFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String mediaType = contentType.split(";", 2)[0].trim();
+        for (UserExportFormat format : values()) {
+            if (format.getContentType().equalsIgnoreCase(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
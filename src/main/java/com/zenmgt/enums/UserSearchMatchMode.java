@@ -0,0 +1,43 @@
+package com.zenmgt.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How the user search compares the userCode, username and email filters.
+ * Exact and prefix matches can seek the column indexes; contains has to scan.
+ */
+@Getter
+@AllArgsConstructor
+public enum UserSearchMatchMode {
+    CONTAINS("contains", "LIKE"),
+    PREFIX("prefix", "LIKE"),
+    EXACT("exact", "=");
+
+    private final String param;
+    private final String operator;
+
+    /**
+     * Get match mode by request parameter; unknown values fall back to contains
+     */
+    public static UserSearchMatchMode fromParam(String param) {
+        for (UserSearchMatchMode mode : values()) {
+            if (mode.getParam().equalsIgnoreCase(param)) {
+                return mode;
+            }
+        }
+        return CONTAINS;
+    }
+
+    /**
+     * Right-hand side of the comparison for a search value; LIKE wildcards in the value are
+     * escaped, so they only match themselves
+     */
+    public String pattern(String value) {
+        if (value == null || this == EXACT) {
+            return value;
+        }
+        String escaped = value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return this == PREFIX ? escaped + "%" : "%" + escaped + "%";
+    }
+}
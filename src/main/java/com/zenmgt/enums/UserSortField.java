@@ -0,0 +1,56 @@
+package com.zenmgt.enums;
+
+import com.zenmgt.dto.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sortable columns of the user search.
+ * The column expression is used verbatim in ORDER BY and in the keyset seek condition,
+ * so both always agree; nullable timestamps sort as the earliest value, as MySQL does for NULL.
+ */
+@Getter
+@AllArgsConstructor
+public enum UserSortField {
+    CREATED_AT("createdAt", "u.created_at", UserDTO::getCreatedAt),
+    UPDATED_AT("updatedAt", "COALESCE(u.updated_at, CAST('1000-01-01 00:00:00' AS DATETIME))",
+        dto -> nullAsEarliest(dto.getUpdatedAt())),
+    LAST_LOGIN_AT("lastLoginAt", "COALESCE(u.last_login_at, CAST('1000-01-01 00:00:00' AS DATETIME))",
+        dto -> nullAsEarliest(dto.getLastLoginAt())),
+    USERNAME("username", "u.username", UserDTO::getUsername),
+    EMAIL("email", "u.email", UserDTO::getEmail),
+    USER_CODE("userCode", "u.user_code", UserDTO::getUserCode),
+    RECORD_STATUS("recordStatus", "u.record_status", UserDTO::getRecordStatus);
+
+    public static final LocalDateTime EARLIEST = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    private final String param;
+    private final String column;
+    private final Function<UserDTO, Object> keyExtractor;
+
+    /**
+     * Get sort field by request parameter; unknown values fall back to createdAt
+     */
+    public static UserSortField fromParam(String param) {
+        for (UserSortField field : values()) {
+            if (field.getParam().equals(param)) {
+                return field;
+            }
+        }
+        return CREATED_AT;
+    }
+
+    /**
+     * Sort key of a row, as compared by the column expression
+     */
+    public Object keyOf(UserDTO dto) {
+        return keyExtractor.apply(dto);
+    }
+
+    private static LocalDateTime nullAsEarliest(LocalDateTime value) {
+        return value != null ? value : EARLIEST;
+    }
+}
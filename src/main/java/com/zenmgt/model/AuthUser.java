@@ -21,4 +21,13 @@ public class AuthUser extends BaseMasterMapper {
 
     @TableField("last_login_at")
     private LocalDateTime lastLoginAt;
+
+    @TableField("hashed_id")
+    private String hashedId;
+
+    @TableField("hashed_id_version")
+    private Integer hashedIdVersion;
+
+    @TableField("prev_hashed_id")
+    private String prevHashedId;
 } 
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.zenmgt.repository;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * Writes the auth_user_current projection from the source tables
+ * (auth_user, its active auth_user_detail version and the latest approval request for it).
+ * Reads of the projection live in UserRepository next to the queries they replaced.
+ */
+@Mapper
+public interface UserProjectionRepository {
+    
+    /**
+     * Re-project the users with IDs in [fromId, toId]; users without an active version are skipped
+     * @return affected rows as reported by MySQL (1 per insert, 2 per changed row)
+     */
+    @Insert("""
+        INSERT INTO auth_user_current (id, user_code, record_status, session_key, last_login_at, active_version,
+            username, email, session_validity, approval_status, approval_request_id,
+            created_at, updated_at, created_by, updated_by)
+        SELECT u.id, u.user_code, u.record_status, u.session_key, u.last_login_at, u.active_version,
+            d.username, d.email, d.session_validity, sar.request_status, sar.id,
+            u.created_at, u.updated_at, u.created_by, u.updated_by
+        FROM auth_user u
+        JOIN auth_user_detail d ON u.active_version = d.id
+        LEFT JOIN sys_approval_request sar ON sar.id = (
+            SELECT MAX(latest.id) FROM sys_approval_request latest
+            WHERE latest.reference_type = 100 AND latest.reference_id = u.id
+                AND latest.reference_version_id = u.active_version)
+        WHERE u.id BETWEEN #{fromId} AND #{toId}
+        ON DUPLICATE KEY UPDATE
+            user_code = VALUES(user_code),
+            record_status = VALUES(record_status),
+            session_key = VALUES(session_key),
+            last_login_at = VALUES(last_login_at),
+            active_version = VALUES(active_version),
+            username = VALUES(username),
+            email = VALUES(email),
+            session_validity = VALUES(session_validity),
+            approval_status = VALUES(approval_status),
+            approval_request_id = VALUES(approval_request_id),
+            created_at = VALUES(created_at),
+            updated_at = VALUES(updated_at),
+            created_by = VALUES(created_by),
+            updated_by = VALUES(updated_by)
+        """)
+    int refreshRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    /**
+     * Re-project a single user
+     */
+    default int refreshUser(Long userId) {
+        return refreshRange(userId, userId);
+    }
+    
+    /**
+     * Next batch of user IDs in primary key order, for rebuilding in chunks
+     */
+    @Select("SELECT id FROM auth_user WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> findUserIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * Remove projected rows whose user no longer exists or has no active version
+     */
+    @Delete("""
+        DELETE c FROM auth_user_current c
+        LEFT JOIN auth_user u ON u.id = c.id
+        LEFT JOIN auth_user_detail d ON u.active_version = d.id
+        WHERE d.id IS NULL
+        """)
+    int deleteOrphans();
+}
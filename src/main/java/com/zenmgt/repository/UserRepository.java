@@ -2,15 +2,24 @@ package com.zenmgt.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.zenmgt.dto.UserAggregateDTO;
 import com.zenmgt.dto.UserDTO;
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.dto.UserSearchCursor;
+import com.zenmgt.enums.UserSortField;
 import com.zenmgt.model.AuthUser;
 import com.zenmgt.model.AuthUserDetail;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -24,10 +33,11 @@ public interface UserRepository extends BaseMapper<AuthUser> {
     
     // ====== Single User Queries ======
     
-    /**
-     * Find user with current detail by user code
-     */
-    @Select("""
+    // A user's current state, credential flags and group memberships in one statement; the credential
+    // is the latest row per user, and group IDs come back comma-separated (DatabaseConfig raises
+    // group_concat_max_len on every connection so the list is not truncated).
+    // No "<" or ">" here, the text is also used inside <script>
+    String USER_AGGREGATE_SELECT = """
         SELECT 
             u.id as id,
             u.user_code as userCode,
@@ -39,68 +49,87 @@ public interface UserRepository extends BaseMapper<AuthUser> {
             u.updated_at as updatedAt,
             u.created_by as createdBy,
             u.updated_by as updatedBy,
-            d.id as detailId,
-            d.username as username,
-            d.email as email,
-            d.session_validity as sessionValidity
-        FROM auth_user u 
-        JOIN auth_user_detail d ON u.active_version = d.id 
+            u.username as username,
+            u.email as email,
+            u.session_validity as sessionValidity,
+            u.approval_status as approvalStatus,
+            u.approval_request_id as approvalRequestId,
+            c.id IS NOT NULL as hasCredential,
+            COALESCE(c.hash_password != '', FALSE) as hasPassword,
+            COALESCE(c.mfa_enabled, FALSE) as mfaEnabled,
+            COALESCE(c.mfa_enforced, FALSE) as mfaEnforced,
+            COALESCE(c.mfa_secret != '', FALSE) as hasMfaSecret,
+            COALESCE(c.recovery_codes != '', FALSE) as hasRecoveryCodes,
+            c.updated_at as credentialUpdatedAt,
+            (SELECT GROUP_CONCAT(m.user_group_id ORDER BY m.user_group_id)
+                FROM user_group_member m WHERE m.auth_user_id = u.id) as groupIdList
+        FROM auth_user_current u 
+        LEFT JOIN auth_user_credential c ON c.id = (
+            SELECT MAX(latest.id) FROM auth_user_credential latest WHERE latest.parent_id = u.id)
+        """;
+    
+    /**
+     * Find a non-deleted user's aggregate by user code; see UserAggregateLoader
+     */
+    @Select(USER_AGGREGATE_SELECT + """
         WHERE u.user_code = #{userCode} AND u.record_status IN (0, 1, 2, 3, 4)
         """)
-    Optional<UserDTO> findUserWithDetailByCode(@Param("userCode") String userCode);
+    Optional<UserAggregateDTO> findUserWithDetailByCode(@Param("userCode") String userCode);
     
     /**
-     * Find user with current detail by master ID
+     * Find a user's aggregate by master ID, deleted users included; see UserAggregateLoader
      */
-    @Select("""
-        SELECT 
-            u.id as id,
-            u.user_code as userCode,
-            u.record_status as recordStatus,
-            u.session_key as sessionKey,
-            u.last_login_at as lastLoginAt,
-            u.active_version as activeVersion,
-            u.created_at as createdAt,
-            u.updated_at as updatedAt,
-            u.created_by as createdBy,
-            u.updated_by as updatedBy,
-            d.id as detailId,
-            d.username as username,
-            d.email as email,
-            d.session_validity as sessionValidity
-        FROM auth_user u 
-        JOIN auth_user_detail d ON u.active_version = d.id 
-        WHERE u.id = #{userId} AND u.record_status IN (0, 1, 2, 3, 4)
+    @Select(USER_AGGREGATE_SELECT + """
+        WHERE u.id = #{userId}
         """)
-    Optional<UserDTO> findUserWithDetailById(@Param("userId") Long userId);
+    Optional<UserAggregateDTO> findUserWithDetailById(@Param("userId") Long userId);
+    
+    /**
+     * Find the aggregates of several users by master ID with one IN query, deleted users included
+     */
+    @Select("<script>" + USER_AGGREGATE_SELECT + """
+        WHERE u.id IN <foreach collection="userIds" item="userId" open="(" separator="," close=")">#{userId}</foreach>
+        </script>""")
+    List<UserAggregateDTO> findUsersWithDetailByIds(@Param("userIds") Collection<Long> userIds);
     
     /**
-     * Find user by username (case insensitive)
+     * Find user by username (case insensitive); seeks idx_auth_user_current_username_lc, then the primary key
      */
     @Select("""
-        SELECT u.* FROM auth_user u 
-        JOIN auth_user_detail d ON u.active_version = d.id 
-        WHERE LOWER(d.username) = LOWER(#{username}) AND u.record_status IN (0, 1, 2, 3, 4)
+        SELECT u.* FROM auth_user_current c 
+        JOIN auth_user u ON u.id = c.id 
+        WHERE c.username_lc = LOWER(#{username}) AND c.record_status IN (0, 1, 2, 3, 4)
         """)
     Optional<AuthUser> findByUsername(@Param("username") String username);
     
     /**
-     * Find user by email (case insensitive)
+     * Find user by user code (the JWT subject); uses the unique user_code index
      */
     @Select("""
-        SELECT u.* FROM auth_user u 
-        JOIN auth_user_detail d ON u.active_version = d.id 
-        WHERE LOWER(d.email) = LOWER(#{email}) AND u.record_status IN (0, 1, 2, 3, 4)
+        SELECT * FROM auth_user 
+        WHERE user_code = #{userCode} AND record_status IN (0, 1, 2, 3, 4)
+        """)
+    Optional<AuthUser> findByUserCode(@Param("userCode") String userCode);
+    
+    /**
+     * Find user by email (case insensitive); seeks idx_auth_user_current_email_lc, then the primary key
+     */
+    @Select("""
+        SELECT u.* FROM auth_user_current c 
+        JOIN auth_user u ON u.id = c.id 
+        WHERE c.email_lc = LOWER(#{email}) AND c.record_status IN (0, 1, 2, 3, 4)
         """)
     Optional<AuthUser> findByEmail(@Param("email") String email);
     
     // ====== Paginated List Queries with Record Status ======
     
     /**
-     * Search users with new record_status filtering - WITH APPROVAL DATA
+     * Shared pieces of the user search, composed into the page, keyset and count queries
+     * so the filters cannot drift apart. Parameters: q (UserSearchCriteria), recordStatus,
+     * sort (UserSortField) and descending. globalSearch is answered by q.matchedUserIds when
+     * the service resolved it through UserSearchIndex, and by LIKE otherwise.
      */
-    @Select("""
-        <script>
+    String SEARCH_COLUMNS = """
         SELECT 
             u.id as id,
             u.user_code as userCode,
@@ -112,108 +141,160 @@ public interface UserRepository extends BaseMapper<AuthUser> {
             u.updated_at as updatedAt,
             u.created_by as createdBy,
             u.updated_by as updatedBy,
-            d.id as detailId,
-            d.username as username,
-            d.email as email,
-            d.session_validity as sessionValidity,
-            sar.request_status as approvalStatus,
-            sar.id as approvalRequestId
-        FROM auth_user u
-        JOIN auth_user_detail d ON u.active_version = d.id
-        LEFT JOIN sys_approval_request sar ON u.id = sar.reference_id 
-            AND u.active_version = sar.reference_version_id 
-            AND sar.reference_type = 100
+            u.active_version as detailId,
+            u.username as username,
+            u.email as email,
+            u.session_validity as sessionValidity,
+            u.approval_status as approvalStatus,
+            u.approval_request_id as approvalRequestId
+        """;
+    
+    // The projection already carries the active version and approval status, so no joins
+    String SEARCH_FROM = """
+        FROM auth_user_current u
+        """;
+    
+    // Field filters go through the user_code and lower-cased column indexes for exact and prefix matches
+    // (${q.matchOperator} is "=" or "LIKE" from UserSearchMatchMode); caseSensitive rechecks the original
+    // column under a binary collation, which filters the rows the index found.
+    // Every condition besides the two record status filters must also be listed in
+    // UserSearchCriteria.hasRowFilters, or unfiltered totals are estimated for filtered searches
+    String SEARCH_FILTERS = """
         WHERE 1=1
         <if test="recordStatus != null">
             AND u.record_status = #{recordStatus}
         </if>
-        <if test="userCode != null and userCode != ''">
-            AND u.user_code LIKE CONCAT('%', #{userCode}, '%')
+        <if test="q.recordStatusCodes != null">
+            AND u.record_status IN <foreach collection="q.recordStatusCodes" item="statusCode" open="(" separator="," close=")">#{statusCode}</foreach>
         </if>
-        <if test="username != null and username != ''">
-            AND d.username LIKE CONCAT('%', #{username}, '%')
+        <if test="q.userCode != null and q.userCode != ''">
+            AND u.user_code ${q.matchOperator} #{q.userCodePattern}
+            <if test="q.caseSensitive">AND u.user_code COLLATE utf8mb4_bin ${q.matchOperator} #{q.userCodePattern}</if>
         </if>
-        <if test="email != null and email != ''">
-            AND d.email LIKE CONCAT('%', #{email}, '%')
+        <if test="q.username != null and q.username != ''">
+            AND u.username_lc ${q.matchOperator} #{q.usernamePattern}
+            <if test="q.caseSensitive">AND u.username COLLATE utf8mb4_bin ${q.matchOperator} #{q.usernamePattern}</if>
         </if>
-        <if test="globalSearch != null and globalSearch != ''">
-            AND (
-                u.user_code LIKE CONCAT('%', #{globalSearch}, '%') OR
-                d.username LIKE CONCAT('%', #{globalSearch}, '%') OR
-                d.email LIKE CONCAT('%', #{globalSearch}, '%') OR
-                d.first_name LIKE CONCAT('%', #{globalSearch}, '%') OR
-                d.last_name LIKE CONCAT('%', #{globalSearch}, '%')
-            )
+        <if test="q.email != null and q.email != ''">
+            AND u.email_lc ${q.matchOperator} #{q.emailPattern}
+            <if test="q.caseSensitive">AND u.email COLLATE utf8mb4_bin ${q.matchOperator} #{q.emailPattern}</if>
         </if>
-        <if test="createdDateFrom != null and createdDateFrom != ''">
-            AND u.created_at &gt;= #{createdDateFrom}
+        <if test="q.globalSearch != null and q.globalSearch != ''">
+            <choose>
+                <when test="q.matchedUserIds != null and q.matchedUserIds.isEmpty()">
+                    AND 1=0
+                </when>
+                <when test="q.matchedUserIds != null">
+                    AND u.id IN <foreach collection="q.matchedUserIds" item="matchedId" open="(" separator="," close=")">#{matchedId}</foreach>
+                </when>
+                <otherwise>
+                    AND (
+                        u.user_code LIKE #{q.globalSearchPattern} OR
+                        u.username LIKE #{q.globalSearchPattern} OR
+                        u.email LIKE #{q.globalSearchPattern}
+                    )
+                </otherwise>
+            </choose>
         </if>
-        <if test="createdDateTo != null and createdDateTo != ''">
-            AND u.created_at &lt;= #{createdDateTo}
+        <if test="q.createdDateFrom != null">
+            AND u.created_at &gt;= #{q.createdDateFrom}
         </if>
-        <if test="lastLoginFrom != null and lastLoginFrom != ''">
-            AND u.last_login_at &gt;= #{lastLoginFrom}
+        <if test="q.createdDateTo != null">
+            AND u.created_at &lt;= #{q.createdDateTo}
         </if>
-        <if test="lastLoginTo != null and lastLoginTo != ''">
-            AND u.last_login_at &lt;= #{lastLoginTo}
+        <if test="q.lastLoginFrom != null">
+            AND u.last_login_at &gt;= #{q.lastLoginFrom}
         </if>
-        <choose>
-            <when test="sortBy != null and sortBy != ''">
-                <choose>
-                    <when test="sortBy == 'username'">
-                        ORDER BY d.username
-                    </when>
-                    <when test="sortBy == 'email'">
-                        ORDER BY d.email
-                    </when>
-                    <when test="sortBy == 'userCode'">
-                        ORDER BY u.user_code
-                    </when>
-                    <when test="sortBy == 'lastLoginAt'">
-                        ORDER BY u.last_login_at
-                    </when>
-                    <when test="sortBy == 'recordStatus'">
-                        ORDER BY u.record_status
-                    </when>
-                    <when test="sortBy == 'updatedAt'">
-                        ORDER BY u.updated_at
-                    </when>
-                    <otherwise>
-                        ORDER BY u.created_at
-                    </otherwise>
-                </choose>
-                <choose>
-                    <when test="sortDirection != null and (sortDirection == 'asc' or sortDirection == 'ASC')">
-                        ASC
-                    </when>
-                    <otherwise>
-                        DESC
-                    </otherwise>
-                </choose>
-                , u.id ASC
-            </when>
-            <otherwise>
-                ORDER BY u.created_at DESC, u.id ASC
-            </otherwise>
-        </choose>
-        </script>
-        """)
+        <if test="q.lastLoginTo != null">
+            AND u.last_login_at &lt;= #{q.lastLoginTo}
+        </if>
+        """;
+    
+    // Rows strictly after the cursor in (sort key, id) order; the id tie-break is always ascending
+    String SEARCH_SEEK = """
+        <if test="cursor != null">
+            AND (${sort.column} <choose><when test="descending">&lt;</when><otherwise>&gt;</otherwise></choose> #{cursor.value}
+                OR (${sort.column} = #{cursor.value} AND u.id &gt; #{cursor.id}))
+        </if>
+        """;
+    
+    String SEARCH_ORDER = """
+        ORDER BY ${sort.column} <choose><when test="descending">DESC</when><otherwise>ASC</otherwise></choose>, u.id ASC
+        """;
+    
+    /**
+     * Search users with new record_status filtering - WITH APPROVAL DATA (OFFSET pagination)
+     * Callers disable the page's auto-COUNT and use countUsersWithRecordStatus instead.
+     */
+    @Select("<script>" + SEARCH_COLUMNS + SEARCH_FROM + SEARCH_FILTERS + SEARCH_ORDER + "</script>")
     Page<UserDTO> searchUsersWithRecordStatus(
         Page<UserDTO> page,
-        @Param("userCode") String userCode,
-        @Param("username") String username,
-        @Param("email") String email,
+        @Param("q") UserSearchCriteria criteria,
         @Param("recordStatus") Integer recordStatus,
-        @Param("globalSearch") String globalSearch,
-        @Param("createdDateFrom") String createdDateFrom,
-        @Param("createdDateTo") String createdDateTo,
-        @Param("lastLoginFrom") String lastLoginFrom,
-        @Param("lastLoginTo") String lastLoginTo,
-        @Param("sortBy") String sortBy,
-        @Param("sortDirection") String sortDirection,
-        @Param("includeGroupCount") boolean includeGroupCount
+        @Param("sort") UserSortField sort,
+        @Param("descending") boolean descending
     );
     
+    /**
+     * Search users with keyset pagination: seeks past the cursor instead of skipping rows,
+     * so every page costs the same regardless of depth. Fetch limit + 1 to detect a next page.
+     */
+    @Select("<script>" + SEARCH_COLUMNS + SEARCH_FROM + SEARCH_FILTERS + SEARCH_SEEK + SEARCH_ORDER
+        + "LIMIT #{limit}</script>")
+    List<UserDTO> searchUsersAfterCursor(
+        @Param("q") UserSearchCriteria criteria,
+        @Param("recordStatus") Integer recordStatus,
+        @Param("sort") UserSortField sort,
+        @Param("descending") boolean descending,
+        @Param("cursor") UserSearchCursor cursor,
+        @Param("limit") int limit
+    );
+    
+    /**
+     * Stream every user matching the search filters in sort order, for exports.
+     * MySQL streams the result set row by row (fetch size Integer.MIN_VALUE), so the cursor
+     * must be consumed inside a transaction and holds its connection until closed.
+     */
+    @Select("<script>" + SEARCH_COLUMNS + SEARCH_FROM + SEARCH_FILTERS + SEARCH_ORDER + "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<UserDTO> streamUsers(
+        @Param("q") UserSearchCriteria criteria,
+        @Param("recordStatus") Integer recordStatus,
+        @Param("sort") UserSortField sort,
+        @Param("descending") boolean descending
+    );
+    
+    /**
+     * Count users matching the search filters, without ORDER BY
+     */
+    @Select("<script>SELECT COUNT(*) " + SEARCH_FROM + SEARCH_FILTERS + "</script>")
+    long countUsersWithRecordStatus(
+        @Param("q") UserSearchCriteria criteria,
+        @Param("recordStatus") Integer recordStatus
+    );
+    
+    /**
+     * IDs of the users matching the search filters, unordered; used to apply the SQL filters
+     * to a bounded set of search index matches before ranking them
+     */
+    @Select("<script>SELECT u.id " + SEARCH_FROM + SEARCH_FILTERS + "</script>")
+    List<Long> findUserIdsMatching(
+        @Param("q") UserSearchCriteria criteria,
+        @Param("recordStatus") Integer recordStatus
+    );
+    
+    /**
+     * Stream the searchable fields of every non-deleted user's current version into the search index,
+     * row by row so the full table is never held in memory
+     */
+    @Select("""
+        SELECT id, user_code as userCode, username, email
+        FROM auth_user_current
+        WHERE record_status != 5
+        """)
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamSearchIndexEntries(ResultHandler<UserDTO> handler);
+    
     // ====== Record Status Management ======
     
     /**
@@ -332,9 +413,8 @@ public interface UserRepository extends BaseMapper<AuthUser> {
      * Check if username exists (case insensitive, excluding deleted)
      */
     @Select("""
-        SELECT COUNT(1) FROM auth_user u 
-        JOIN auth_user_detail d ON u.active_version = d.id 
-        WHERE LOWER(d.username) = LOWER(#{username}) AND u.record_status != 5
+        SELECT COUNT(1) FROM auth_user_current c 
+        WHERE c.username_lc = LOWER(#{username}) AND c.record_status != 5
         """)
     boolean existsByUsername(@Param("username") String username);
     
@@ -342,12 +422,38 @@ public interface UserRepository extends BaseMapper<AuthUser> {
      * Check if email exists (case insensitive, excluding deleted)
      */
     @Select("""
-        SELECT COUNT(1) FROM auth_user u 
-        JOIN auth_user_detail d ON u.active_version = d.id 
-        WHERE LOWER(d.email) = LOWER(#{email}) AND u.record_status != 5
+        SELECT COUNT(1) FROM auth_user_current c 
+        WHERE c.email_lc = LOWER(#{email}) AND c.record_status != 5
         """)
     boolean existsByEmail(@Param("email") String email);
-    
+
+    /**
+     * Which of the given lower-cased usernames, emails and user codes are already taken, in one statement.
+     * Usernames and emails count for non-deleted users only (as existsByUsername/existsByEmail);
+     * user codes count for every user, since uk_auth_user_user_code covers deleted rows too.
+     * Each returned row carries exactly one of username, email or userCode, lower-cased.
+     */
+    @Select("""
+        <script>
+        SELECT c.username_lc AS username, NULL AS email, NULL AS user_code
+        FROM auth_user_current c
+        WHERE c.username_lc IN <foreach collection="usernames" item="v" open="(" separator="," close=")">#{v}</foreach>
+        AND c.record_status != 5
+        UNION ALL
+        SELECT NULL, c.email_lc, NULL
+        FROM auth_user_current c
+        WHERE c.email_lc IN <foreach collection="emails" item="v" open="(" separator="," close=")">#{v}</foreach>
+        AND c.record_status != 5
+        UNION ALL
+        SELECT NULL, NULL, LOWER(a.user_code)
+        FROM auth_user a
+        WHERE a.user_code IN <foreach collection="userCodes" item="v" open="(" separator="," close=")">#{v}</foreach>
+        </script>
+        """)
+    List<UserDTO> findTakenIdentifiers(@Param("usernames") Collection<String> usernames,
+                                       @Param("emails") Collection<String> emails,
+                                       @Param("userCodes") Collection<String> userCodes);
+
     /**
      * Get user count by group (only active users)
      */
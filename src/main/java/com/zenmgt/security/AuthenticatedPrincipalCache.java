@@ -0,0 +1,97 @@
+package com.zenmgt.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.zenmgt.model.AuthUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived snapshot of authenticated principals keyed by user code (the JWT subject),
+ * so steady-state requests authenticate without a database round trip.
+ * User writes invalidate by user ID through a user ID to user code index, so eviction is a
+ * single key lookup; the TTL bounds staleness across nodes.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    private final Cache<String, AuthUser> cache;
+    // Cached users' codes; entries leave with their snapshot (the eviction listener runs atomically)
+    private final ConcurrentMap<Long, String> userCodesById = new ConcurrentHashMap<>();
+
+    public AuthenticatedPrincipalCache(MeterRegistry meterRegistry,
+                                       @Value("${app.auth.principal-cache.ttl:30s}") Duration ttl,
+                                       @Value("${app.auth.principal-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .evictionListener((String userCode, AuthUser user, RemovalCause cause) -> {
+                if (user != null && user.getId() != null) {
+                    userCodesById.remove(user.getId(), userCode);
+                }
+            })
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principalCache");
+    }
+
+    /**
+     * Get the principal for a user code, loading it on a miss; misses are not cached
+     * @param userCode The user code from the token subject
+     * @param loader Loads the user from the database
+     * @return The user, if found
+     */
+    public Optional<AuthUser> get(String userCode, Function<String, Optional<AuthUser>> loader) {
+        AuthUser cached = cache.getIfPresent(userCode);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<AuthUser> loaded = loader.apply(userCode);
+        loaded.ifPresent(user -> {
+            // Index after caching so a concurrent eviction never leaves a snapshot it cannot find
+            cache.put(userCode, user);
+            if (user.getId() != null) {
+                userCodesById.put(user.getId(), userCode);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Evict a user's snapshot now and again after the surrounding transaction commits,
+     * so a concurrent request cannot re-cache the pre-commit row
+     * @param userId The user ID
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        String userCode = userCodesById.remove(userId);
+        if (userCode != null) {
+            cache.invalidate(userCode);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.zenmgt.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of token revocations, so a single node keeps its
+ * blacklist across restarts without an external store.
+ *
+ * File layout: an 8-byte magic header followed by records of
+ * [type:1][payload length:2][payload][CRC32C of type, length and payload:4].
+ * A zero type byte marks the end of the data; a record with a bad CRC is a torn write from a
+ * crash and ends the replay. Appends land in the page cache as soon as they are copied into
+ * the mapping (surviving a process crash) and are forced to disk periodically.
+ *
+ * All file access runs on one writer thread, so appends never block the caller.
+ * When the file fills up, or on request, it is compacted by rewriting only the live
+ * entries supplied by the owner.
+ */
+public class BlacklistJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlacklistJournal.class);
+
+    private static final long MAGIC = 0x5A4D424C4A524E31L; // "ZMBLJRN1"
+    private static final int HEADER_BYTES = Long.BYTES;
+    private static final int FRAME_OVERHEAD = 1 + Short.BYTES + Integer.BYTES;
+    private static final byte TYPE_TOKEN = 1;
+    private static final byte TYPE_EPOCH = 2;
+    private static final int TOKEN_PAYLOAD_BYTES = 3 * Long.BYTES;
+
+    /**
+     * Receives journal entries on replay and supplies live entries for compaction
+     */
+    public interface EntryVisitor {
+        void onToken(TokenDigest digest, long expiresAtMillis);
+
+        void onEpoch(String userCode, long epochMillis, long expiresAtMillis);
+    }
+
+    private final Path path;
+    private final int initialCapacity;
+    private final Consumer<EntryVisitor> liveEntries;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ZenMgt-BlacklistJournal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CRC32C crc = new CRC32C();
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * @param path Journal file
+     * @param initialCapacity Mapped size in bytes; doubled by compaction if the live entries need it
+     * @param liveEntries Supplies the owner's current live entries when the journal is compacted
+     */
+    public BlacklistJournal(Path path, int initialCapacity, Consumer<EntryVisitor> liveEntries) {
+        this.path = path;
+        this.initialCapacity = initialCapacity;
+        this.liveEntries = liveEntries;
+    }
+
+    /**
+     * Map the file and replay it, skipping entries that expired before now.
+     * Must be called once, before any append.
+     * @return Number of live entries replayed
+     */
+    public int open(EntryVisitor visitor, long nowMillis) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean existing = Files.exists(path) && Files.size(path) >= HEADER_BYTES;
+        int capacity = existing ? (int) Math.max(Files.size(path), initialCapacity) : initialCapacity;
+        buffer = map(path, capacity);
+
+        if (!existing || buffer.getLong(0) != MAGIC) {
+            buffer.putLong(0, MAGIC);
+            buffer.position(HEADER_BYTES);
+            return 0;
+        }
+
+        int live = 0;
+        buffer.position(HEADER_BYTES);
+        while (buffer.remaining() >= FRAME_OVERHEAD) {
+            int start = buffer.position();
+            byte type = buffer.get();
+            if (type == 0) {
+                buffer.position(start);
+                break;
+            }
+            int length = buffer.getShort() & 0xFFFF;
+            if (buffer.remaining() < length + Integer.BYTES) {
+                buffer.position(start);
+                truncateFrom(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            int storedCrc = buffer.getInt();
+            if (storedCrc != checksum(type, payload)) {
+                logger.warn("Token blacklist journal has a torn record at offset {}; discarding the tail", start);
+                buffer.position(start);
+                truncateFrom(start);
+                break;
+            }
+            if (replay(type, payload, visitor, nowMillis)) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Queue a single-token revocation
+     */
+    public void appendToken(TokenDigest digest, long expiresAtMillis) {
+        byte[] payload = new byte[TOKEN_PAYLOAD_BYTES];
+        ByteBuffer.wrap(payload).putLong(digest.high()).putLong(digest.low()).putLong(expiresAtMillis);
+        submit(() -> append(TYPE_TOKEN, payload));
+    }
+
+    /**
+     * Queue a per-user revocation epoch
+     */
+    public void appendEpoch(String userCode, long epochMillis, long expiresAtMillis) {
+        byte[] user = userCode.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[2 * Long.BYTES + user.length];
+        ByteBuffer.wrap(payload).putLong(expiresAtMillis).putLong(epochMillis).put(user);
+        submit(() -> append(TYPE_EPOCH, payload));
+    }
+
+    /**
+     * Queue a flush of written records to disk
+     */
+    public void force() {
+        submit(() -> buffer.force());
+    }
+
+    /**
+     * Queue a rewrite of the journal holding only the owner's live entries
+     */
+    public void compact() {
+        submit(this::rewrite);
+    }
+
+    /**
+     * Bytes in use, including the header
+     */
+    int usedBytes() {
+        return buffer.position();
+    }
+
+    /**
+     * Drain queued writes, force them to disk and stop the writer thread
+     */
+    @Override
+    public void close() {
+        submit(() -> buffer.force());
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Token blacklist journal writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.error("Token blacklist journal write failed: {}", e.getMessage(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Token blacklist journal is closed; entry not persisted");
+        }
+    }
+
+    private void append(byte type, byte[] payload) {
+        if (buffer.remaining() < FRAME_OVERHEAD + payload.length) {
+            rewrite();
+        }
+        writeFrame(buffer, type, payload);
+    }
+
+    private void writeFrame(MappedByteBuffer target, byte type, byte[] payload) {
+        int start = target.position();
+        // Type byte last, so a crash mid-write leaves a zero (end) or a frame with a bad CRC
+        target.position(start + 1);
+        target.putShort((short) payload.length);
+        target.put(payload);
+        target.putInt(checksum(type, payload));
+        target.put(start, type);
+    }
+
+    private void rewrite() {
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            // Collect first so the new file can be sized to fit
+            ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            liveEntries.accept(new EntryVisitor() {
+                @Override
+                public void onToken(TokenDigest digest, long expiresAtMillis) {
+                    byte[] payload = new byte[TOKEN_PAYLOAD_BYTES];
+                    ByteBuffer.wrap(payload).putLong(digest.high()).putLong(digest.low()).putLong(expiresAtMillis);
+                    writeFrame(frames, TYPE_TOKEN, payload);
+                }
+
+                @Override
+                public void onEpoch(String userCode, long epochMillis, long expiresAtMillis) {
+                    byte[] user = userCode.getBytes(StandardCharsets.UTF_8);
+                    byte[] payload = new byte[2 * Long.BYTES + user.length];
+                    ByteBuffer.wrap(payload).putLong(expiresAtMillis).putLong(epochMillis).put(user);
+                    writeFrame(frames, TYPE_EPOCH, payload);
+                }
+            });
+
+            int needed = HEADER_BYTES + frames.size();
+            int capacity = initialCapacity;
+            while (capacity < needed * 2 && capacity < Integer.MAX_VALUE / 2) {
+                capacity *= 2;
+            }
+
+            Files.deleteIfExists(temp);
+            MappedByteBuffer compacted = map(temp, capacity);
+            compacted.putLong(MAGIC);
+            compacted.put(frames.toByteArray());
+            compacted.force();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            int previousBytes = buffer.position();
+            buffer = compacted;
+            logger.info("Compacted token blacklist journal from {} to {} bytes (capacity {})",
+                previousBytes, compacted.position(), capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compact token blacklist journal", e);
+        }
+    }
+
+    private void writeFrame(ByteArrayOutputStream target, byte type, byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_OVERHEAD + payload.length);
+        frame.put(type).putShort((short) payload.length).put(payload).putInt(checksum(type, payload));
+        target.writeBytes(frame.array());
+    }
+
+    private static boolean replay(byte type, byte[] payload, EntryVisitor visitor, long nowMillis) {
+        ByteBuffer data = ByteBuffer.wrap(payload);
+        if (type == TYPE_TOKEN && payload.length == TOKEN_PAYLOAD_BYTES) {
+            TokenDigest digest = new TokenDigest(data.getLong(), data.getLong());
+            long expiresAt = data.getLong();
+            if (expiresAt > nowMillis) {
+                visitor.onToken(digest, expiresAt);
+                return true;
+            }
+        } else if (type == TYPE_EPOCH && payload.length > 2 * Long.BYTES) {
+            long expiresAt = data.getLong();
+            long epochMillis = data.getLong();
+            if (expiresAt > nowMillis) {
+                String userCode = new String(payload, 2 * Long.BYTES, payload.length - 2 * Long.BYTES, StandardCharsets.UTF_8);
+                visitor.onEpoch(userCode, epochMillis, expiresAt);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int checksum(byte type, byte[] payload) {
+        crc.reset();
+        crc.update(type);
+        crc.update(payload.length >>> 8);
+        crc.update(payload.length);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void truncateFrom(int offset) {
+        for (int i = offset; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+}
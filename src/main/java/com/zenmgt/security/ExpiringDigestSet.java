@@ -0,0 +1,90 @@
+package com.zenmgt.security;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Set of token digests that each expire at their own time.
+ *
+ * Entries are also filed in one-minute expiry buckets, so removing expired entries only
+ * touches the buckets that are due instead of scanning the whole set; each entry is
+ * visited once when its bucket drains. Lookups treat an entry as gone from its expiry
+ * onwards even if its bucket has not drained yet.
+ *
+ * Thread-safe.
+ */
+public class ExpiringDigestSet {
+
+    static final long BUCKET_MILLIS = 60_000L;
+
+    private final ConcurrentMap<TokenDigest, Long> expirations = new ConcurrentHashMap<>();
+    // Bucket n holds entries expiring in ((n - 1) * BUCKET_MILLIS, n * BUCKET_MILLIS]
+    private final ConcurrentSkipListMap<Long, Set<TokenDigest>> buckets = new ConcurrentSkipListMap<>();
+
+    /**
+     * Add a digest, keeping the later expiry if it is already present
+     * @param digest The token digest
+     * @param expiresAtMillis Expiry timestamp
+     */
+    public void add(TokenDigest digest, long expiresAtMillis) {
+        expirations.merge(digest, expiresAtMillis, Math::max);
+        buckets.computeIfAbsent(bucketOf(expiresAtMillis), bucket -> ConcurrentHashMap.newKeySet()).add(digest);
+    }
+
+    /**
+     * Check for a digest that has not yet expired
+     */
+    public boolean contains(TokenDigest digest, long nowMillis) {
+        Long expiresAt = expirations.get(digest);
+        return expiresAt != null && expiresAt > nowMillis;
+    }
+
+    /**
+     * Remove every entry whose bucket is fully in the past
+     * @param nowMillis Current timestamp
+     * @return Number of entries removed
+     */
+    public int expire(long nowMillis) {
+        int removed = 0;
+        Map.Entry<Long, Set<TokenDigest>> due;
+        while ((due = buckets.firstEntry()) != null && due.getKey() * BUCKET_MILLIS <= nowMillis) {
+            if (!buckets.remove(due.getKey(), due.getValue())) {
+                continue;
+            }
+            for (TokenDigest digest : due.getValue()) {
+                // An entry re-added with a later expiry lives on in its later bucket
+                boolean[] expired = new boolean[1];
+                expirations.computeIfPresent(digest, (key, expiresAt) -> {
+                    if (expiresAt <= nowMillis) {
+                        expired[0] = true;
+                        return null;
+                    }
+                    return expiresAt;
+                });
+                if (expired[0]) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Visit every entry with its expiry timestamp
+     */
+    public void forEach(BiConsumer<TokenDigest, Long> action) {
+        expirations.forEach(action);
+    }
+
+    public int size() {
+        return expirations.size();
+    }
+
+    private static long bucketOf(long expiresAtMillis) {
+        return Math.floorDiv(expiresAtMillis + BUCKET_MILLIS - 1, BUCKET_MILLIS);
+    }
+}
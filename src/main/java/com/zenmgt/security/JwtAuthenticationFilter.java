@@ -10,7 +10,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.http.MediaType;
@@ -21,8 +20,6 @@ import com.zenmgt.service.TokenBlacklistService;
 
 import lombok.RequiredArgsConstructor;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Collections;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -40,30 +37,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private final TokenBlacklistService tokenBlacklistService;
 
-    private final List<String> PUBLIC_PATHS = Arrays.asList(
-        "/mgt/v1/auth/login",
-        "/mgt/v1/auth/oauth2/login",
-        "/mgt/v1/auth/oauth2/login/success",
-        "/mgt/v1/auth/oauth2/login/failure",
-        "/mgt/v1/auth/config",
-        "/mgt/v1/enums/test",
-        "/mgt/v1/enums/test-all",
-        "/mgt/v1/users/test-search",
-        "/mgt/v1/users/*/test-toggle-status",
-        "/mgt/v1/users/*/test-reset-password",
-        "/mgt/v1/users/*/test-reset-mfa",
-        "/mgt/v1/users/*/test-toggle-mfa-admin",
-        "/mgt/v1/users/*/test-security-status",
-        "/error",
-        "/health"
-    );
-
-    private final List<String> MFA_PUBLIC_PATHS = Arrays.asList(
-        "/mgt/v1/mfa/setup/init",
-        "/mgt/v1/mfa/setup/init/**",
-        "/mgt/v1/mfa/setup/verify",
-        "/mgt/v1/mfa/verify"
-    );
+    private final AuthenticatedPrincipalCache principalCache;
+
+    private final PublicPathMatcher publicPathMatcher;
 
     private void sendErrorResponse(HttpServletResponse response, String message, String path) throws IOException {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -79,49 +55,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String contextPath = request.getContextPath();
-        final String path;
-        if (contextPath != null && !contextPath.isEmpty() && request.getRequestURI().startsWith(contextPath)) {
-            path = request.getRequestURI().substring(contextPath.length());
-        } else {
-            path = request.getRequestURI();
-        }
-        
-        logger.debug("Checking path after context path removal: {}", path);
-        
-        // Explicit check for MFA setup init endpoint
-        if (path.equals("/mgt/v1/mfa/setup/init") || path.startsWith("/mgt/v1/mfa/setup/init?")) {
-            logger.debug("Path '{}' is MFA setup init endpoint - skipping JWT filter", path);
-            return true;
+        boolean isPublicPath = publicPathMatcher.isPublic(request);
+        if (isPublicPath) {
+            logger.debug("Path '{}' is public - skipping JWT filter", request.getRequestURI());
         }
-        
-        // Check MFA paths with pattern matching
-        boolean isMfaPath = MFA_PUBLIC_PATHS.stream()
-                .anyMatch(mfaPath -> {
-                    AntPathRequestMatcher matcher = new AntPathRequestMatcher(mfaPath);
-                    boolean matches = matcher.matches(request);
-                    if (matches) {
-                        logger.debug("Path '{}' matches MFA pattern '{}' - skipping JWT filter", path, mfaPath);
-                    }
-                    return matches;
-                });
-
-        if (isMfaPath) {
-            return true;
-        }
-
-        // Then check other public paths
-        boolean isPublicPath = PUBLIC_PATHS.stream()
-                .anyMatch(publicPath -> {
-                    AntPathRequestMatcher matcher = new AntPathRequestMatcher(publicPath);
-                    boolean matches = matcher.matches(request);
-                    if (matches) {
-                        logger.debug("Path '{}' matches public pattern '{}' - skipping JWT filter", path, publicPath);
-                    }
-                    return matches;
-                });
-        
-        logger.debug("Final shouldNotFilter result for path '{}': {}", path, isPublicPath);
         return isPublicPath;
     }
 
@@ -132,12 +69,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         try {
-            if (shouldNotFilter(request)) {
-                logger.debug("Skipping JWT authentication for public path: {}", request.getRequestURI());
-                filterChain.doFilter(request, response);
-                return;
-            }
-
             final String authHeader = request.getHeader("Authorization");
             logger.debug("Authorization header: {}", authHeader != null ? "present" : "absent");
 
@@ -148,26 +79,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             final String jwt = authHeader.substring(7);
-            String username = jwtService.extractUsername(jwt);
+            // Verify and decode once; everything below reads from the parsed token
+            final ParsedToken parsedToken = jwtService.parseToken(jwt);
+            String username = parsedToken.getSubject();
             logger.debug("Extracted username from JWT: {}", username);
 
             // Check if token is blacklisted (logged out)
-            if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
+            if (tokenBlacklistService.isTokenRevoked(parsedToken)) {
                 logger.debug("Token is blacklisted - user has logged out");
                 sendErrorResponse(response, "Token has been invalidated", request.getRequestURI());
                 return;
             }
 
-            final String hashedUserId = jwtService.extractHashedUserId(jwt);
-            final String hashedUserGroupId = jwtService.extractHashedUserGroupId(jwt);
+            final String hashedUserId = parsedToken.getHashedUserId();
+            final String hashedUserGroupId = parsedToken.getHashedUserGroupId();
             
             logger.debug("Extracted hashed user ID: {}", hashedUserId != null ? "present" : "absent");
             logger.debug("Extracted hashed user group ID: {}", hashedUserGroupId != null ? "present" : "absent");
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                var userOptional = userRepository.findByUsername(username);
+                // The subject is the user code; steady-state requests are served from the snapshot cache
+                var userOptional = principalCache.get(username, userRepository::findByUserCode);
                 
-                if (userOptional.isPresent() && jwtService.isTokenValid(jwt, userOptional.get())) {
+                if (userOptional.isPresent() && jwtService.isTokenValid(parsedToken, userOptional.get())) {
                     var user = userOptional.get();
                     var authToken = new UsernamePasswordAuthenticationToken(
                         user,
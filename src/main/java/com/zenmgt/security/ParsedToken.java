@@ -0,0 +1,83 @@
+package com.zenmgt.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A JWT whose signature has been verified and whose claims have been decoded once.
+ * Pass this around instead of the raw token so each request parses it a single time.
+ */
+@Getter
+@Builder
+public class ParsedToken {
+
+    public static final String CLAIM_HASHED_USER_ID = "huid";
+    public static final String CLAIM_HASHED_USER_GROUP_ID = "hgid";
+    // Issue time in milliseconds; the standard iat claim only has second precision
+    public static final String CLAIM_ISSUED_AT_MILLIS = "iatms";
+
+    private final String tokenId;           // jti; null for tokens issued before jti was added
+    private final TokenDigest digest;
+    private final String subject;           // user code
+    private final String hashedUserId;
+    private final String hashedUserGroupId;
+    private final Date issuedAt;
+    private final Long issuedAtMillis;      // iatms, or iat for tokens issued before iatms was added
+    private final Date expiration;
+    private final Claims claims;
+
+    /**
+     * Build from verified claims
+     */
+    public static ParsedToken from(Claims claims, TokenDigest digest) {
+        return ParsedToken.builder()
+            .tokenId(claims.getId())
+            .digest(digest)
+            .subject(claims.getSubject())
+            .hashedUserId(claims.get(CLAIM_HASHED_USER_ID, String.class))
+            .hashedUserGroupId(claims.get(CLAIM_HASHED_USER_GROUP_ID, String.class))
+            .issuedAt(claims.getIssuedAt())
+            .issuedAtMillis(issuedAtMillis(claims))
+            .expiration(claims.getExpiration())
+            .claims(claims)
+            .build();
+    }
+
+    /**
+     * Fixed-size key identifying this single token for revocation: the jti's 128 bits
+     * (hashed if it is not a UUID), or the token digest for legacy tokens without a jti
+     */
+    public TokenDigest getRevocationKey() {
+        if (tokenId == null) {
+            return digest;
+        }
+        try {
+            UUID uuid = UUID.fromString(tokenId);
+            return new TokenDigest(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        } catch (IllegalArgumentException e) {
+            return TokenDigest.of(tokenId);
+        }
+    }
+
+    /**
+     * Whether a "log out everywhere" epoch revokes this token: issued at or before it, or issue time unknown
+     */
+    public boolean isIssuedNotAfter(long epochMillis) {
+        return issuedAtMillis == null || issuedAtMillis <= epochMillis;
+    }
+
+    private static Long issuedAtMillis(Claims claims) {
+        if (claims.get(CLAIM_ISSUED_AT_MILLIS) instanceof Number millis) {
+            return millis.longValue();
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,159 @@
+package com.zenmgt.security;
+
+import com.zenmgt.config.SecurityPathProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled matcher for the paths that skip JWT authentication.
+ *
+ * Patterns made of literal segments, single-segment "*" and a trailing "**" are
+ * compiled once into a path-segment trie, so matching walks the request path once.
+ * Anything else (e.g. "init*" or an inner "**") falls back to precompiled PathPatterns.
+ * The result is memoized on the request with the path it was computed for, so repeated checks
+ * in one request are free and a forward or error dispatch to another path is matched afresh.
+ */
+@Component
+public class PublicPathMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicPathMatcher.class);
+
+    private static final String RESULT_ATTRIBUTE = PublicPathMatcher.class.getName() + ".PUBLIC";
+
+    private final Node root = new Node();
+    private final List<PathPattern> fallbackPatterns = new ArrayList<>();
+
+    public PublicPathMatcher(SecurityPathProperties properties) {
+        PathPatternParser parser = new PathPatternParser();
+        for (String pattern : properties.getAllPublicPaths()) {
+            if (!addToTrie(pattern)) {
+                fallbackPatterns.add(parser.parse(pattern));
+            }
+        }
+        logger.info("Compiled {} public path patterns ({} via fallback)",
+            properties.getAllPublicPaths().size(), fallbackPatterns.size());
+    }
+
+    /**
+     * Check whether the request targets a public path
+     * @param request The HTTP request
+     * @return true if JWT authentication should be skipped
+     */
+    public boolean isPublic(HttpServletRequest request) {
+        String path = pathWithinApplication(request);
+        if (request.getAttribute(RESULT_ATTRIBUTE) instanceof Memo memo && memo.path().equals(path)) {
+            return memo.result();
+        }
+        boolean result = matches(path);
+        request.setAttribute(RESULT_ATTRIBUTE, new Memo(path, result));
+        return result;
+    }
+
+    /**
+     * Check whether a path (without context path or query string) is public
+     * @param path The request path
+     * @return true if the path matches a public pattern
+     */
+    public boolean matches(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        String[] segments = tokenize(path);
+        // "/a/b/" only matches patterns that accept any remainder
+        boolean trailingSlash = path.length() > 1 && path.endsWith("/");
+        if (matchTrie(root, segments, 0, trailingSlash)) {
+            return true;
+        }
+        if (!fallbackPatterns.isEmpty()) {
+            PathContainer container = PathContainer.parsePath(path);
+            for (PathPattern pattern : fallbackPatterns) {
+                if (pattern.matches(container)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean addToTrie(String pattern) {
+        String[] segments = tokenize(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean trailingDoubleWildcard = segment.equals("**") && i == segments.length - 1;
+            if (!trailingDoubleWildcard && !segment.equals("*")
+                    && (segment.contains("*") || segment.contains("?") || segment.contains("{"))) {
+                return false;
+            }
+        }
+
+        Node node = root;
+        for (String segment : segments) {
+            if (segment.equals("**")) {
+                node.matchesRest = true;
+                return true;
+            }
+            node = segment.equals("*")
+                ? (node.wildcard != null ? node.wildcard : (node.wildcard = new Node()))
+                : node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        node.terminal = true;
+        return true;
+    }
+
+    private static boolean matchTrie(Node node, String[] segments, int index, boolean trailingSlash) {
+        if (node.matchesRest) {
+            return true;
+        }
+        if (index == segments.length) {
+            return node.terminal && !trailingSlash;
+        }
+        Node literal = node.children.get(segments[index]);
+        if (literal != null && matchTrie(literal, segments, index + 1, trailingSlash)) {
+            return true;
+        }
+        return node.wildcard != null && matchTrie(node.wildcard, segments, index + 1, trailingSlash);
+    }
+
+    private static String[] tokenize(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)) {
+            return uri.substring(contextPath.length());
+        }
+        return uri;
+    }
+
+    private record Memo(String path, boolean result) {
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node wildcard;
+        private boolean terminal;
+        private boolean matchesRest;
+    }
+}
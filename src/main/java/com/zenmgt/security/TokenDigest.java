@@ -0,0 +1,39 @@
+package com.zenmgt.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Compact 128-bit fingerprint of a raw JWT (SHA-256, truncated).
+ * Used as a cache/blacklist key so the full token string is never retained.
+ */
+public record TokenDigest(long high, long low) {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * Compute the digest of a raw token
+     * @param token The JWT token
+     * @return The token digest
+     */
+    public static TokenDigest of(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new TokenDigest(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Fixed-width hex form, for external stores keyed by string
+     */
+    public String toHex() {
+        return String.format("%016x%016x", high, low);
+    }
+}
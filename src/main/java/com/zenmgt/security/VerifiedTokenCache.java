@@ -0,0 +1,77 @@
+package com.zenmgt.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * Keyed by token digest; each entry expires exactly at the token's exp claim,
+ * so a hit never returns a token the parser would have rejected as expired.
+ * Revoked tokens must be evicted via {@link #invalidate(String)}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<TokenDigest, ParsedToken> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${app.jwt.verified-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<TokenDigest, ParsedToken>() {
+                @Override
+                public long expireAfterCreate(TokenDigest key, ParsedToken token, long currentTime) {
+                    long remainingMs = token.getExpiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                }
+
+                @Override
+                public long expireAfterUpdate(TokenDigest key, ParsedToken token, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, token, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(TokenDigest key, ParsedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokenCache");
+    }
+
+    /**
+     * Get the parsed token for a previously verified raw token
+     * @param digest The token digest
+     * @return The parsed token, or null if not cached
+     */
+    public ParsedToken get(TokenDigest digest) {
+        return cache.getIfPresent(digest);
+    }
+
+    /**
+     * Remember a verified token until its expiration; tokens without exp are not cached
+     * @param digest The token digest
+     * @param token The parsed token
+     */
+    public void put(TokenDigest digest, ParsedToken token) {
+        if (token.getExpiration() != null && !token.isExpired()) {
+            cache.put(digest, token);
+        }
+    }
+
+    /**
+     * Evict a token, e.g. when it is blacklisted
+     * @param token The raw JWT token
+     */
+    public void invalidate(String token) {
+        cache.invalidate(TokenDigest.of(token));
+    }
+}
@@ -77,4 +77,9 @@ public interface AuthService {
      * Logout user and invalidate token
      */
     ResponseEntity<?> logout(String token);
+
+    /**
+     * Logout user from all sessions by revoking every token issued to them so far
+     */
+    ResponseEntity<?> logoutAllSessions(String token);
 } 
\ No newline at end of file
@@ -9,6 +9,7 @@ import com.zenmgt.model.AuthUserDetail;
 import com.zenmgt.repository.AuthUserCredentialRepository;
 import com.zenmgt.repository.AuthUserDetailRepository;
 import com.zenmgt.repository.UserRepository;
+import com.zenmgt.security.AuthenticatedPrincipalCache;
 
 import dev.samstevens.totp.code.CodeGenerator;
 import dev.samstevens.totp.code.CodeVerifier;
@@ -56,6 +57,8 @@ public class AuthServiceImpl implements AuthService {
     private final CodeVerifier codeVerifier;
     private final QrGenerator qrGenerator;
     private final TokenBlacklistService tokenBlacklistService;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final UserProjectionService userProjectionService;
     
     // ====== Authentication Methods ======
     
@@ -130,6 +133,8 @@ public class AuthServiceImpl implements AuthService {
             // Step 6: Update last login time
             user.setLastLoginAt(LocalDateTime.now());
             userRepository.updateById(user);
+            userProjectionService.refreshUser(user.getId());
+            principalCache.invalidateUser(user.getId());
             
             // Step 7: Generate JWT token
             String token = jwtService.generateToken(user);
@@ -489,6 +494,39 @@ public class AuthServiceImpl implements AuthService {
         }
     }
     
+    @Override
+    public ResponseEntity<?> logoutAllSessions(String token) {
+        logger.debug("Logging out user from all sessions");
+        
+        try {
+            if (token == null || token.trim().isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(ErrorCodes.AUTH_INVALID_TOKEN, "Token is required for logout"));
+            }
+            
+            // Remove "Bearer " prefix if present
+            if (token.startsWith("Bearer ")) {
+                token = token.substring(7);
+            }
+            
+            // Revoke every token issued to this user, including the current one
+            String userCode = jwtService.parseToken(token).getSubject();
+            tokenBlacklistService.revokeAllTokensForUser(userCode);
+            
+            logger.info("User {} logged out from all sessions", userCode);
+            
+            return ResponseEntity.ok(ApiResponse.success(Map.of(
+                "status", "SUCCESS",
+                "message", "Logged out from all sessions"
+            ), "Logged out from all sessions"));
+            
+        } catch (Exception e) {
+            logger.error("Error during logout from all sessions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error(ErrorCodes.INTERNAL_ERROR, "Logout failed: " + e.getMessage()));
+        }
+    }
+    
     // ====== Helper Methods ======
     
     /**
@@ -0,0 +1,20 @@
+package com.zenmgt.service;
+
+/**
+ * Service for populating the persisted hashed_id columns on existing rows
+ * Safe to re-run: each pass only touches rows not yet hashed under the current key version
+ */
+public interface HashedIdBackfillService {
+    
+    /**
+     * Backfill hashed IDs for auth_user rows
+     * @return number of rows updated
+     */
+    int backfillUsers();
+    
+    /**
+     * Backfill hashed IDs for user_group rows
+     * @return number of rows updated
+     */
+    int backfillUserGroups();
+}
@@ -0,0 +1,94 @@
+package com.zenmgt.service;
+
+import com.zenmgt.util.SecurityHashUtil;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Hashed ID Backfill Service Implementation
+ * Walks each table in primary key order (keyset chunks) and writes hashes with JDBC batch updates.
+ * Progress is implied by the row predicate, so an interrupted run simply resumes on the next start.
+ * On key rotation the existing hash moves to prev_hashed_id so old and new hashes both resolve.
+ */
+@Service
+@RequiredArgsConstructor
+public class HashedIdBackfillServiceImpl implements HashedIdBackfillService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HashedIdBackfillServiceImpl.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final SecurityHashUtil securityHashUtil;
+    
+    @Value("${app.id-hash.backfill.enabled:true}")
+    private boolean backfillEnabled;
+    
+    @Value("${app.id-hash.backfill.batch-size:500}")
+    private int batchSize;
+    
+    /**
+     * Run the backfill in the background once the application (and its migrations) are ready
+     */
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!backfillEnabled) {
+            return;
+        }
+        try {
+            int users = backfillUsers();
+            int groups = backfillUserGroups();
+            logger.info("Hashed ID backfill completed: {} users, {} user groups updated", users, groups);
+        } catch (Exception e) {
+            logger.error("Hashed ID backfill failed (will resume on next start): {}", e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public int backfillUsers() {
+        return backfill("auth_user", securityHashUtil::hmacUserId);
+    }
+    
+    @Override
+    public int backfillUserGroups() {
+        return backfill("user_group", securityHashUtil::hmacUserGroupId);
+    }
+    
+    private int backfill(String table, Function<Long, String> hasher) {
+        Integer keyVersion = securityHashUtil.getKeyVersion();
+        String selectSql = "SELECT id FROM " + table
+            + " WHERE id > ? AND (hashed_id IS NULL OR hashed_id_version <> ?) ORDER BY id LIMIT ?";
+        // MySQL applies assignments left to right, so prev_hashed_id receives the old hashed_id
+        String updateSql = "UPDATE " + table
+            + " SET prev_hashed_id = hashed_id, hashed_id = ?, hashed_id_version = ? WHERE id = ?";
+        
+        long lastId = Long.MIN_VALUE;
+        int updated = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(selectSql, Long.class, lastId, keyVersion, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            jdbcTemplate.batchUpdate(updateSql, ids, ids.size(), (ps, id) -> {
+                ps.setString(1, hasher.apply(id));
+                ps.setInt(2, keyVersion);
+                ps.setLong(3, id);
+            });
+            
+            updated += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            logger.debug("Backfilled {} hashed IDs on {} up to id {}", ids.size(), table, lastId);
+        }
+        return updated;
+    }
+}
@@ -4,6 +4,7 @@ import java.util.Date;
 import java.util.function.Function;
 
 import com.zenmgt.model.AuthUser;
+import com.zenmgt.security.ParsedToken;
 
 import io.jsonwebtoken.Claims;
 
@@ -28,6 +29,15 @@ public interface JwtService {
      */
     String generateTokenWithCustomExpiration(AuthUser user, long customExpirationMs);
 
+    /**
+     * Verifies the signature of a JWT token and decodes all of its claims once.
+     *
+     * @param token The JWT token
+     * @return The parsed token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or has an invalid signature
+     */
+    ParsedToken parseToken(String token);
+
     /**
      * Extracts the username from a JWT token.
      *
@@ -77,4 +87,13 @@ public interface JwtService {
      * @return true if the token is valid, false otherwise
      */
     boolean isTokenValid(String token, AuthUser user);
+
+    /**
+     * Validates an already parsed JWT token for a user.
+     *
+     * @param token The parsed JWT token
+     * @param user The user to validate against
+     * @return true if the token is valid, false otherwise
+     */
+    boolean isTokenValid(ParsedToken token, AuthUser user);
 } 
\ No newline at end of file
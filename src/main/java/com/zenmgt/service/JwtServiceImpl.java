@@ -3,11 +3,16 @@ package com.zenmgt.service;
 import com.zenmgt.model.AuthUser;
 import com.zenmgt.model.AuthUserDetail;
 import com.zenmgt.repository.UserGroupMemberRepository;
+import com.zenmgt.security.ParsedToken;
+import com.zenmgt.security.TokenDigest;
+import com.zenmgt.security.VerifiedTokenCache;
 import com.zenmgt.util.SecurityHashUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 import com.zenmgt.repository.UserRepository;
@@ -37,6 +43,10 @@ public class JwtServiceImpl implements JwtService {
 
     @Value("${app.jwt.refresh-token.expiration}")
     private long refreshExpiration;
+
+    // Revocation epochs are kept this long, so no token may outlive it
+    @Value("${app.token-revocation.max-token-lifetime-ms:604800000}")
+    private long maxTokenLifetimeMs;
     
     @Autowired
     private UserGroupMemberRepository userGroupMemberRepository;
@@ -47,6 +57,21 @@ public class JwtServiceImpl implements JwtService {
     @Autowired
     private SecurityHashUtil securityHashUtil;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    // Derived once; the built parser is immutable and thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     @Override
     public String generateToken(AuthUser user) {
         // Get user-specific session validity
@@ -60,7 +85,7 @@ public class JwtServiceImpl implements JwtService {
         
         // Add hashed user ID
         String hashedUserId = securityHashUtil.hashUserId(user.getId());
-        extraClaims.put("huid", hashedUserId);
+        extraClaims.put(ParsedToken.CLAIM_HASHED_USER_ID, hashedUserId);
         
         // Get primary user group ID and hash it
         List<Long> userGroupIds = userGroupMemberRepository.findUserGroupIdsByUserId(user.getId());
@@ -68,30 +93,44 @@ public class JwtServiceImpl implements JwtService {
             // Use the first user group as primary (in practice, this could be more sophisticated)
             Long primaryUserGroupId = userGroupIds.get(0);
             String hashedUserGroupId = securityHashUtil.hashUserGroupId(primaryUserGroupId);
-            extraClaims.put("hgid", hashedUserGroupId);
+            extraClaims.put(ParsedToken.CLAIM_HASHED_USER_GROUP_ID, hashedUserGroupId);
         }
         
         return generateToken(extraClaims, user, customExpirationMs);
     }
 
+    @Override
+    public ParsedToken parseToken(String token) {
+        // Repeat tokens skip signature verification and JSON parsing
+        TokenDigest digest = TokenDigest.of(token);
+        ParsedToken cached = verifiedTokenCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        
+        ParsedToken parsed = ParsedToken.from(extractAllClaims(token), digest);
+        verifiedTokenCache.put(digest, parsed);
+        return parsed;
+    }
+
     @Override
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getSubject();
     }
 
     @Override
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parseToken(token).getExpiration();
     }
 
     @Override
     public String extractHashedUserId(String token) {
-        return extractClaim(token, claims -> claims.get("huid", String.class));
+        return parseToken(token).getHashedUserId();
     }
 
     @Override
     public String extractHashedUserGroupId(String token) {
-        return extractClaim(token, claims -> claims.get("hgid", String.class));
+        return parseToken(token).getHashedUserGroupId();
     }
 
     @Override
@@ -102,48 +141,43 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public boolean isTokenValid(String token, AuthUser user) {
-        final String username = extractUsername(token);
-        final String hashedUserId = extractHashedUserId(token);
-        
+        return isTokenValid(parseToken(token), user);
+    }
+
+    @Override
+    public boolean isTokenValid(ParsedToken token, AuthUser user) {
         // Verify username matches
-        boolean usernameValid = username.equals(user.getUserCode());
+        boolean usernameValid = token.getSubject() != null && token.getSubject().equals(user.getUserCode());
         
         // Verify hashed user ID matches
-        boolean userIdValid = securityHashUtil.verifyUserIdHash(user.getId(), hashedUserId);
+        boolean userIdValid = securityHashUtil.verifyUserIdHash(user.getId(), token.getHashedUserId());
         
         // Verify token is not expired
-        boolean notExpired = !isTokenExpired(token);
+        boolean notExpired = !token.isExpired();
         
         return usernameValid && userIdValid && notExpired;
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     private String generateToken(Map<String, Object> extraClaims, AuthUser user, long expirationMs) {
+        long issuedAt = System.currentTimeMillis();
+        long lifetimeMs = Math.min(expirationMs, maxTokenLifetimeMs);
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .claim(ParsedToken.CLAIM_ISSUED_AT_MILLIS, issuedAt)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUserCode())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(issuedAt + lifetimeMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Get user-specific session validity or fall back to default
      */
@@ -0,0 +1,267 @@
+package com.zenmgt.service;
+
+import com.zenmgt.security.ParsedToken;
+import com.zenmgt.security.VerifiedTokenCache;
+import com.zenmgt.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Distributed Token Blacklist Service backed by Redis
+ * Enabled with app.token-blacklist.store=redis so every instance sees every logout.
+ *
+ * Redis holds the source of truth:
+ * - token-blacklist:token:{jti or digest} expires with the token itself, so Redis never needs cleanup
+ * - token-blacklist:epoch:{userCode} holds the "log out everywhere" epoch millisecond for the longest token lifetime
+ *
+ * Each instance keeps a local front so the request path stays off the network:
+ * - a Bloom filter of revoked token keys; a miss (almost every request) is answered locally,
+ *   and only a Bloom hit is confirmed against Redis
+ * - a copy of the per-user epochs
+ * Both are updated through the token-blacklist:events channel and rebuilt periodically from Redis
+ * to pick up anything missed while disconnected.
+ */
+@Service
+@ConditionalOnProperty(name = "app.token-blacklist.store", havingValue = "redis")
+public class RedisTokenBlacklistService implements TokenBlacklistService, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenBlacklistService.class);
+
+    public static final String EVENTS_CHANNEL = "token-blacklist:events";
+    static final String TOKEN_KEY_PREFIX = "token-blacklist:token:";
+    static final String EPOCH_KEY_PREFIX = "token-blacklist:epoch:";
+    private static final String TOKEN_EVENT = "T:";
+    private static final String EPOCH_EVENT = "E:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final long maxTokenLifetimeMs;
+    private final long bloomExpectedInsertions;
+    private final double bloomFalsePositiveRate;
+
+    private final ConcurrentMap<String, Long> revocationEpochs = new ConcurrentHashMap<>();
+    private volatile BloomFilter revokedTokenFilter;
+    // Keys revoked while a rebuild is scanning Redis, replayed into the new filter before it is swapped in
+    private volatile Set<String> rebuildBuffer;
+
+    public RedisTokenBlacklistService(StringRedisTemplate redisTemplate,
+                                      JwtService jwtService,
+                                      VerifiedTokenCache verifiedTokenCache,
+                                      @Value("${app.token-revocation.max-token-lifetime-ms:604800000}") long maxTokenLifetimeMs,
+                                      @Value("${app.token-blacklist.redis.bloom.expected-insertions:100000}") long bloomExpectedInsertions,
+                                      @Value("${app.token-blacklist.redis.bloom.false-positive-rate:0.001}") double bloomFalsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.jwtService = jwtService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.maxTokenLifetimeMs = maxTokenLifetimeMs;
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.revokedTokenFilter = newFilter();
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuildLocalState();
+        } catch (Exception e) {
+            // Start anyway; the scheduled rebuild retries once Redis is reachable
+            logger.warn("Could not load token blacklist from Redis at startup: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void blacklistToken(String token) {
+        ParsedToken parsedToken;
+        try {
+            parsedToken = jwtService.parseToken(token);
+        } catch (Exception e) {
+            // Expired or invalid tokens are rejected by signature/expiry checks anyway
+            logger.warn("Failed to blacklist token: {}", e.getMessage());
+            return;
+        }
+
+        String key = revocationKey(parsedToken);
+        long ttlMs = parsedToken.getExpiration() != null
+            ? parsedToken.getExpiration().getTime() - System.currentTimeMillis()
+            : maxTokenLifetimeMs;
+        if (ttlMs <= 0) {
+            return;
+        }
+
+        // Local first: this instance rejects the token even if Redis is unreachable
+        markTokenRevoked(key);
+        verifiedTokenCache.invalidate(token);
+        try {
+            redisTemplate.opsForValue().set(TOKEN_KEY_PREFIX + key, "1", Duration.ofMillis(ttlMs));
+            redisTemplate.convertAndSend(EVENTS_CHANNEL, TOKEN_EVENT + key);
+            logger.info("Token blacklisted in Redis for {} ms", ttlMs);
+        } catch (Exception e) {
+            logger.error("Failed to publish token revocation to Redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isTokenBlacklisted(String token) {
+        try {
+            return isTokenRevoked(jwtService.parseToken(token));
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    @Override
+    public boolean isTokenRevoked(ParsedToken token) {
+        Long epochMillis = revocationEpochs.get(token.getSubject());
+        if (epochMillis != null && token.isIssuedNotAfter(epochMillis)) {
+            return true;
+        }
+
+        String key = revocationKey(token);
+        if (!revokedTokenFilter.mightContain(key)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(TOKEN_KEY_PREFIX + key));
+        } catch (Exception e) {
+            // The filter says it was probably revoked; fail closed
+            logger.warn("Could not confirm token revocation in Redis: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void revokeAllTokensForUser(String userCode) {
+        if (userCode == null) {
+            return;
+        }
+        long epochMillis = System.currentTimeMillis();
+        revocationEpochs.merge(userCode, epochMillis, Math::max);
+        try {
+            redisTemplate.opsForValue().set(EPOCH_KEY_PREFIX + userCode, Long.toString(epochMillis),
+                Duration.ofMillis(maxTokenLifetimeMs));
+            redisTemplate.convertAndSend(EVENTS_CHANNEL, EPOCH_EVENT + epochMillis + ":" + userCode);
+            logger.info("Revoked all tokens issued to user {} up to epoch millisecond {}", userCode, epochMillis);
+        } catch (Exception e) {
+            logger.error("Failed to publish revocation epoch for user {} to Redis: {}", userCode, e.getMessage());
+        }
+    }
+
+    @Override
+    public long getTokenExpiration(String token) {
+        try {
+            Date expiration = jwtService.parseToken(token).getExpiration();
+            return expiration != null ? expiration.getTime() : 0;
+        } catch (Exception e) {
+            logger.error("Error parsing token expiration: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Redis expires revoked tokens and epochs by TTL; only the local copies need pruning.
+     * The Bloom filter cannot drop entries, so it is rebuilt from the live Redis keys instead.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.token-blacklist.redis.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.token-blacklist.redis.rebuild-interval-ms:600000}")
+    public void cleanupExpiredTokens() {
+        try {
+            rebuildLocalState();
+        } catch (Exception e) {
+            logger.warn("Token blacklist rebuild from Redis failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(TOKEN_EVENT)) {
+            markTokenRevoked(body.substring(TOKEN_EVENT.length()));
+        } else if (body.startsWith(EPOCH_EVENT)) {
+            int separator = body.indexOf(':', EPOCH_EVENT.length());
+            if (separator > 0) {
+                long epochMillis = Long.parseLong(body.substring(EPOCH_EVENT.length(), separator));
+                revocationEpochs.merge(body.substring(separator + 1), epochMillis, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Replace the local Bloom filter and epoch copy with the current contents of Redis
+     */
+    void rebuildLocalState() {
+        Set<String> buffer = ConcurrentHashMap.newKeySet();
+        rebuildBuffer = buffer;
+        try {
+            BloomFilter filter = newFilter();
+            int tokens = 0;
+            try (Cursor<String> keys = redisTemplate.scan(scanOptions(TOKEN_KEY_PREFIX))) {
+                while (keys.hasNext()) {
+                    filter.put(keys.next().substring(TOKEN_KEY_PREFIX.length()));
+                    tokens++;
+                }
+            }
+
+            ConcurrentMap<String, Long> epochs = new ConcurrentHashMap<>();
+            try (Cursor<String> keys = redisTemplate.scan(scanOptions(EPOCH_KEY_PREFIX))) {
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    String value = redisTemplate.opsForValue().get(key);
+                    if (value != null) {
+                        epochs.put(key.substring(EPOCH_KEY_PREFIX.length()), Long.parseLong(value));
+                    }
+                }
+            }
+
+            buffer.forEach(filter::put);
+            revokedTokenFilter = filter;
+            // Epochs only move forward; keep any newer local value received during the scan
+            epochs.forEach((userCode, epoch) -> revocationEpochs.merge(userCode, epoch, Math::max));
+            long oldestLiveEpochMillis = System.currentTimeMillis() - maxTokenLifetimeMs;
+            revocationEpochs.values().removeIf(epoch -> epoch < oldestLiveEpochMillis);
+            logger.debug("Rebuilt token blacklist front from Redis: {} tokens, {} epochs", tokens, epochs.size());
+        } finally {
+            rebuildBuffer = null;
+            // Anything that raced the swap
+            buffer.forEach(revokedTokenFilter::put);
+        }
+    }
+
+    private void markTokenRevoked(String key) {
+        revokedTokenFilter.put(key);
+        Set<String> buffer = rebuildBuffer;
+        if (buffer != null) {
+            buffer.add(key);
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+    }
+
+    private static ScanOptions scanOptions(String prefix) {
+        return ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+    }
+
+    private static String revocationKey(ParsedToken token) {
+        return token.getTokenId() != null ? token.getTokenId() : token.getDigest().toHex();
+    }
+}
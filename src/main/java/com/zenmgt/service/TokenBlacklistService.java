@@ -1,8 +1,14 @@
 package com.zenmgt.service;
 
+import com.zenmgt.security.ParsedToken;
+
 /**
  * Service for managing blacklisted/revoked JWT tokens
  * This ensures that logged out tokens cannot be used even if they haven't expired
+ *
+ * Two revocation mechanisms are supported:
+ * - Single token: the token's jti is remembered until the token expires
+ * - Per user: an epoch after which only newly issued tokens are accepted ("log out everywhere")
  */
 public interface TokenBlacklistService {
     
@@ -19,6 +25,19 @@ public interface TokenBlacklistService {
      */
     boolean isTokenBlacklisted(String token);
     
+    /**
+     * Check if an already parsed token has been revoked, individually or by its user's epoch
+     * @param token The parsed JWT token
+     * @return true if token is revoked, false otherwise
+     */
+    boolean isTokenRevoked(ParsedToken token);
+    
+    /**
+     * Revoke every token issued to a user up to now
+     * @param userCode The user code (JWT subject)
+     */
+    void revokeAllTokensForUser(String userCode);
+    
     /**
      * Remove expired tokens from blacklist (cleanup)
      */
@@ -30,4 +49,4 @@ public interface TokenBlacklistService {
      * @return expiration timestamp
      */
     long getTokenExpiration(String token);
-} 
\ No newline at end of file
+}
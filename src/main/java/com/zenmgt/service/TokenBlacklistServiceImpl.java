@@ -1,60 +1,215 @@
 package com.zenmgt.service;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.zenmgt.security.BlacklistJournal;
+import com.zenmgt.security.ExpiringDigestSet;
+import com.zenmgt.security.ParsedToken;
+import com.zenmgt.security.TokenDigest;
+import com.zenmgt.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * Token Blacklist Service Implementation
- * Uses in-memory storage for token blacklist
- * TODO: For production, consider using Redis or database for distributed systems
+ * Uses in-memory storage for token revocation:
+ * - revokedTokens: 128-bit jti (or token digest for legacy tokens) with its expiry, for single logouts;
+ *   filed in per-minute expiry buckets so expired entries are dropped without scanning the whole set
+ * - revocationEpochs: user code -> epoch millisecond; tokens issued at or before it are rejected
+ * Memory is bounded by active single logouts plus users with a live epoch, not by raw token strings.
+ * Both are journaled to a memory-mapped file (BlacklistJournal) and reloaded on startup, so a restart
+ * does not bring logged-out tokens back; journal writes are asynchronous and never slow down logout.
+ * Default store (app.token-blacklist.store=memory); use RedisTokenBlacklistService when running more than one instance.
  */
 @Service
+@ConditionalOnProperty(name = "app.token-blacklist.store", havingValue = "memory", matchIfMissing = true)
 @RequiredArgsConstructor
 public class TokenBlacklistServiceImpl implements TokenBlacklistService {
     
     private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistServiceImpl.class);
     
-    @Value("${app.jwt.secret-key}")
-    private String jwtSecret;
+    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final MeterRegistry meterRegistry;
     
-    // In-memory blacklist: token -> expiration timestamp
-    private final ConcurrentMap<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
+    // Longest lifetime a token can have (JwtServiceImpl caps exp at it); older epochs can no longer match a live token
+    @Value("${app.token-revocation.max-token-lifetime-ms:604800000}")
+    private long maxTokenLifetimeMs;
+    
+    @Value("${app.token-revocation.journal.enabled:true}")
+    private boolean journalEnabled;
+    
+    @Value("${app.token-revocation.journal.path:data/token-blacklist.journal}")
+    private String journalPath;
+    
+    @Value("${app.token-revocation.journal.capacity-bytes:16777216}")
+    private int journalCapacityBytes;
+    
+    private final ExpiringDigestSet revokedTokens = new ExpiringDigestSet();
+    private final ConcurrentMap<String, Long> revocationEpochs = new ConcurrentHashMap<>();
+    
+    private Counter expirationCounter;
+    private volatile double expirationsPerSecond;
+    private long lastExpireRunMillis = System.currentTimeMillis();
+    private BlacklistJournal journal;
+    
+    @PostConstruct
+    void init() {
+        Gauge.builder("zenmgt.token_blacklist.size", revokedTokens, ExpiringDigestSet::size)
+            .description("Number of live single-token revocations")
+            .register(meterRegistry);
+        Gauge.builder("zenmgt.token_blacklist.expiration_rate", this, service -> service.expirationsPerSecond)
+            .description("Revocations expired per second over the last expiry run")
+            .register(meterRegistry);
+        expirationCounter = Counter.builder("zenmgt.token_blacklist.expirations")
+            .description("Single-token revocations removed after their token expired")
+            .register(meterRegistry);
+        
+        if (journalEnabled) {
+            openJournal();
+        }
+    }
+    
+    private void openJournal() {
+        long start = System.currentTimeMillis();
+        BlacklistJournal opened = new BlacklistJournal(Path.of(journalPath), journalCapacityBytes, this::visitLiveEntries);
+        try {
+            int loaded = opened.open(new BlacklistJournal.EntryVisitor() {
+                @Override
+                public void onToken(TokenDigest digest, long expiresAtMillis) {
+                    revokedTokens.add(digest, expiresAtMillis);
+                }
+                
+                @Override
+                public void onEpoch(String userCode, long epochMillis, long expiresAtMillis) {
+                    revocationEpochs.merge(userCode, epochMillis, Math::max);
+                }
+            }, start);
+            journal = opened;
+            logger.info("Loaded {} token revocations from {} in {} ms", loaded, journalPath, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            // Keep serving with an in-memory blacklist only
+            opened.close();
+            logger.error("Could not open token blacklist journal {}: {}", journalPath, e.getMessage());
+        }
+    }
+    
+    private void visitLiveEntries(BlacklistJournal.EntryVisitor visitor) {
+        long now = System.currentTimeMillis();
+        revokedTokens.forEach((digest, expiresAt) -> {
+            if (expiresAt > now) {
+                visitor.onToken(digest, expiresAt);
+            }
+        });
+        revocationEpochs.forEach((userCode, epochMillis) -> {
+            long expiresAt = epochMillis + maxTokenLifetimeMs;
+            if (expiresAt > now) {
+                visitor.onEpoch(userCode, epochMillis, expiresAt);
+            }
+        });
+    }
+    
+    @PreDestroy
+    void closeJournal() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+    
+    /**
+     * Flush journaled revocations to disk; until then they survive a process crash but not a power loss
+     */
+    @Scheduled(fixedDelayString = "${app.token-revocation.journal.force-interval-ms:1000}")
+    public void forceJournal() {
+        if (journal != null) {
+            journal.force();
+        }
+    }
+    
+    /**
+     * Rewrite the journal with only the live revocations
+     */
+    @Scheduled(fixedDelayString = "${app.token-revocation.journal.compact-interval-ms:3600000}",
+               initialDelayString = "${app.token-revocation.journal.compact-interval-ms:3600000}")
+    public void compactJournal() {
+        if (journal != null) {
+            journal.compact();
+        }
+    }
     
     @Override
     public void blacklistToken(String token) {
         try {
-            long expiration = getTokenExpiration(token);
-            blacklistedTokens.put(token, expiration);
-            logger.info("Token blacklisted successfully. Active blacklisted tokens: {}", blacklistedTokens.size());
+            ParsedToken parsedToken = jwtService.parseToken(token);
+            long now = System.currentTimeMillis();
+            long expiration = parsedToken.getExpiration() != null
+                ? parsedToken.getExpiration().getTime()
+                : now + maxTokenLifetimeMs;
+            if (expiration <= now) {
+                return;
+            }
+            revokedTokens.add(parsedToken.getRevocationKey(), expiration);
+            if (journal != null) {
+                journal.appendToken(parsedToken.getRevocationKey(), expiration);
+            }
+            verifiedTokenCache.invalidate(token);
+            logger.info("Token blacklisted successfully. Active blacklisted tokens: {}", revokedTokens.size());
         } catch (Exception e) {
+            // Expired or invalid tokens are rejected by signature/expiry checks anyway
             logger.warn("Failed to blacklist token: {}", e.getMessage());
         }
     }
     
     @Override
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.containsKey(token);
+        try {
+            return isTokenRevoked(jwtService.parseToken(token));
+        } catch (Exception e) {
+            return true;
+        }
+    }
+    
+    @Override
+    public boolean isTokenRevoked(ParsedToken token) {
+        if (revokedTokens.contains(token.getRevocationKey(), System.currentTimeMillis())) {
+            return true;
+        }
+        
+        Long epochMillis = revocationEpochs.get(token.getSubject());
+        return epochMillis != null && token.isIssuedNotAfter(epochMillis);
+    }
+    
+    @Override
+    public void revokeAllTokensForUser(String userCode) {
+        if (userCode == null) {
+            return;
+        }
+        long epochMillis = System.currentTimeMillis();
+        revocationEpochs.merge(userCode, epochMillis, Math::max);
+        if (journal != null) {
+            journal.appendEpoch(userCode, epochMillis, epochMillis + maxTokenLifetimeMs);
+        }
+        logger.info("Revoked all tokens issued to user {} up to epoch millisecond {}", userCode, epochMillis);
     }
     
     @Override
     public long getTokenExpiration(String token) {
         try {
-            Claims claims = Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
-            
-            Date expiration = claims.getExpiration();
+            Date expiration = jwtService.parseToken(token).getExpiration();
             return expiration != null ? expiration.getTime() : 0;
         } catch (Exception e) {
             logger.error("Error parsing token expiration: {}", e.getMessage());
@@ -62,18 +217,28 @@ public class TokenBlacklistServiceImpl implements TokenBlacklistService {
         }
     }
     
+    /**
+     * Drop revocations whose tokens have expired. Only expiry buckets that are due are visited,
+     * so this runs often and cheaply instead of as an hourly full scan.
+     */
     @Override
-    @Scheduled(fixedRate = 3600000) // Run every hour
+    @Scheduled(fixedRateString = "${app.token-revocation.expiry-interval-ms:10000}")
     public void cleanupExpiredTokens() {
         long currentTime = System.currentTimeMillis();
-        int initialSize = blacklistedTokens.size();
+        int removedTokens = revokedTokens.expire(currentTime);
+        expirationCounter.increment(removedTokens);
+        long elapsedMillis = Math.max(1, currentTime - lastExpireRunMillis);
+        expirationsPerSecond = removedTokens * 1000.0 / elapsedMillis;
+        lastExpireRunMillis = currentTime;
         
-        blacklistedTokens.entrySet().removeIf(entry -> entry.getValue() < currentTime);
+        int initialEpochs = revocationEpochs.size();
+        long oldestLiveEpochMillis = currentTime - maxTokenLifetimeMs;
+        revocationEpochs.entrySet().removeIf(entry -> entry.getValue() < oldestLiveEpochMillis);
+        int removedEpochs = initialEpochs - revocationEpochs.size();
         
-        int removedCount = initialSize - blacklistedTokens.size();
-        if (removedCount > 0) {
-            logger.info("Cleaned up {} expired blacklisted tokens. Remaining: {}", 
-                removedCount, blacklistedTokens.size());
+        if (removedTokens > 0 || removedEpochs > 0) {
+            logger.debug("Expired {} blacklisted tokens and {} revocation epochs. Remaining: {} tokens, {} epochs", 
+                removedTokens, removedEpochs, revokedTokens.size(), revocationEpochs.size());
         }
     }
-} 
\ No newline at end of file
+}
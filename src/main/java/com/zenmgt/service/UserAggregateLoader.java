@@ -0,0 +1,84 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserAggregateDTO;
+import com.zenmgt.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loads users for the read endpoints in a single round trip: the auth_user_current projection
+ * (master row plus active detail) joined with the credential flags and group memberships,
+ * instead of a master select followed by detail and credential lookups.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAggregateLoader {
+
+    // Bound on the IN list of one statement
+    static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final UserRepository userRepository;
+
+    /**
+     * Load a user by master ID, deleted users included
+     */
+    public Optional<UserAggregateDTO> loadById(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return userRepository.findUserWithDetailById(userId);
+    }
+
+    /**
+     * Load a non-deleted user by user code
+     */
+    public Optional<UserAggregateDTO> loadByCode(String userCode) {
+        if (userCode == null || userCode.isBlank()) {
+            return Optional.empty();
+        }
+        return userRepository.findUserWithDetailByCode(userCode.trim());
+    }
+
+    /**
+     * Load several users by master ID, one query per MAX_IDS_PER_QUERY distinct IDs
+     * @return Users found, keyed by ID in the order first requested; missing IDs are absent
+     */
+    public Map<Long, UserAggregateDTO> loadByIds(Collection<Long> userIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                distinctIds.add(userId);
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, UserAggregateDTO> loaded = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(distinctIds);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            for (UserAggregateDTO user : userRepository.findUsersWithDetailByIds(chunk)) {
+                loaded.put(user.getId(), user);
+            }
+        }
+
+        Map<Long, UserAggregateDTO> ordered = new LinkedHashMap<>();
+        for (Long userId : ids) {
+            UserAggregateDTO user = loaded.get(userId);
+            if (user != null) {
+                ordered.put(userId, user);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,21 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.enums.UserExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service for exporting the full user list matching a search
+ */
+public interface UserExportService {
+    
+    /**
+     * Write every user matching the criteria to the stream, in the criteria's sort order.
+     * Pagination fields are ignored. Rows are read from a database cursor and written in
+     * batches, so memory use does not depend on the number of users.
+     * @return number of users written
+     */
+    long exportUsers(UserSearchCriteria criteria, UserExportFormat format, OutputStream out) throws IOException;
+}
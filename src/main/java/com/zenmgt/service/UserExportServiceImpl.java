@@ -0,0 +1,226 @@
+package com.zenmgt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenmgt.dto.UserDTO;
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.enums.ErrorCodes;
+import com.zenmgt.enums.UserExportFormat;
+import com.zenmgt.enums.UserSortField;
+import com.zenmgt.exception.BusinessException;
+import com.zenmgt.repository.UserRepository;
+import com.zenmgt.util.SecurityHashUtil;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * User Export Service Implementation
+ * Streams the search query through a MyBatis cursor (MySQL streaming result set) inside a read-only
+ * transaction. Rows are collected into small batches only to hash their IDs in one call, then written
+ * and flushed, so the heap holds one batch at a time regardless of the export size.
+ */
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final UserSearchIndex userSearchIndex;
+    private final SecurityHashUtil securityHashUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public UserExportServiceImpl(UserRepository userRepository,
+                                 UserSearchIndex userSearchIndex,
+                                 SecurityHashUtil securityHashUtil,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.user-export.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.userSearchIndex = userSearchIndex;
+        this.securityHashUtil = securityHashUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Exported columns, in order; IDs are exported hashed only
+     */
+    private record Column(String name, Function<ExportRow, Object> value) {
+    }
+
+    private record ExportRow(UserDTO user, Map<Long, String> hashedIds) {
+        String hashed(Long id) {
+            return id != null ? hashedIds.get(id) : null;
+        }
+    }
+
+    private static final List<Column> COLUMNS = List.of(
+        new Column("hashedUserId", row -> row.hashed(row.user().getId())),
+        new Column("userCode", row -> row.user().getUserCode()),
+        new Column("username", row -> row.user().getUsername()),
+        new Column("email", row -> row.user().getEmail()),
+        new Column("recordStatus", row -> row.user().getRecordStatus()),
+        new Column("approvalStatus", row -> row.user().getApprovalStatus()),
+        new Column("sessionValidity", row -> row.user().getSessionValidity()),
+        new Column("lastLoginAt", row -> row.user().getLastLoginAt()),
+        new Column("createdAt", row -> row.user().getCreatedAt()),
+        new Column("updatedAt", row -> row.user().getUpdatedAt()),
+        new Column("hashedCreatedBy", row -> row.hashed(row.user().getCreatedBy())),
+        new Column("hashedUpdatedBy", row -> row.hashed(row.user().getUpdatedBy()))
+    );
+
+    @Override
+    public long exportUsers(UserSearchCriteria criteria, UserExportFormat format, OutputStream out) throws IOException {
+        Integer recordStatus = parseRecordStatus(criteria.getRecordStatus());
+        if (StringUtils.hasText(criteria.getGlobalSearch())) {
+            // Same guard as the search endpoint: searches that can return deleted users go to SQL
+            criteria.setMatchedUserIds(userSearchIndex.search(criteria.getGlobalSearch(),
+                recordStatus, criteria.getRecordStatusCodes()));
+        }
+        UserSortField sortField = UserSortField.fromParam(criteria.getSortBy());
+
+        long started = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == UserExportFormat.CSV) {
+            writeCsvHeader(writer);
+        }
+
+        Long exported;
+        try {
+            // The cursor reads from the open result set, so it must be consumed inside the transaction
+            exported = transactionTemplate.execute(status -> {
+                try (Cursor<UserDTO> cursor = userRepository.streamUsers(
+                        criteria, recordStatus, sortField, criteria.isDescending())) {
+                    long count = 0;
+                    List<UserDTO> batch = new ArrayList<>(batchSize);
+                    for (UserDTO user : cursor) {
+                        batch.add(user);
+                        if (batch.size() == batchSize) {
+                            count += writeBatch(batch, format, writer);
+                        }
+                    }
+                    count += writeBatch(batch, format, writer);
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction is rolled back and the cursor closed
+            throw e.getCause();
+        }
+        writer.flush();
+
+        logger.info("Exported {} users as {} in {} ms", exported, format, System.currentTimeMillis() - started);
+        return exported != null ? exported : 0;
+    }
+
+    private int writeBatch(List<UserDTO> batch, UserExportFormat format, Writer writer) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(batch.size() * 3);
+        for (UserDTO user : batch) {
+            ids.add(user.getId());
+            ids.add(user.getCreatedBy());
+            ids.add(user.getUpdatedBy());
+        }
+        Map<Long, String> hashedIds = securityHashUtil.hashUserIds(ids);
+
+        for (UserDTO user : batch) {
+            ExportRow row = new ExportRow(user, hashedIds);
+            if (format == UserExportFormat.CSV) {
+                writeCsvRow(row, writer);
+            } else {
+                writeJsonRow(row, writer);
+            }
+        }
+        writer.flush();
+
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+
+    private static void writeCsvHeader(Writer writer) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(COLUMNS.get(i).name());
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvRow(ExportRow row, Writer writer) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = COLUMNS.get(i).value().apply(row);
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeJsonRow(ExportRow row, Writer writer) throws IOException {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (Column column : COLUMNS) {
+            Object value = column.value().apply(row);
+            // Timestamps as ISO-8601 strings, the same text as the CSV
+            fields.put(column.name(), value instanceof Temporal ? value.toString() : value);
+        }
+        writer.write(objectMapper.writeValueAsString(fields));
+        writer.write('\n');
+    }
+
+    /**
+     * Quote a CSV field when needed (RFC 4180), and neutralize leading characters that
+     * spreadsheets would evaluate as a formula
+     */
+    static String csvField(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static Integer parseRecordStatus(String recordStatus) {
+        if (!StringUtils.hasText(recordStatus)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(recordStatus.trim());
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCodes.INVALID_RECORD_STATUS, "Invalid Record Status");
+        }
+    }
+}
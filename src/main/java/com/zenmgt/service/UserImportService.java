@@ -0,0 +1,21 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserImportResultDTO;
+import com.zenmgt.enums.UserExportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service for creating users in bulk from an uploaded file
+ */
+public interface UserImportService {
+    
+    /**
+     * Create one active user per row of the stream (CSV with a header row, or NDJSON).
+     * Rows are read and committed in chunks of app.user-import.chunk-size; a rejected row is
+     * reported and skipped without affecting the others.
+     * @return counts and per-row errors
+     */
+    UserImportResultDTO importUsers(InputStream in, UserExportFormat format, String hashedCurrentUserId) throws IOException;
+}
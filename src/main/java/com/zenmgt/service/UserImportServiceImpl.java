@@ -0,0 +1,630 @@
+package com.zenmgt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenmgt.dto.UserDTO;
+import com.zenmgt.dto.UserImportResultDTO;
+import com.zenmgt.dto.UserImportResultDTO.RowError;
+import com.zenmgt.enums.ErrorCodes;
+import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.enums.UserExportFormat;
+import com.zenmgt.exception.ValidationException;
+import com.zenmgt.repository.UserRepository;
+import com.zenmgt.util.SecurityHashUtil;
+import com.zenmgt.util.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * User Import Service Implementation
+ * Reads the upload row by row and processes it in chunks. Each chunk is validated in memory, checked
+ * for duplicates against the rest of the file with hash sets and against the database with one
+ * statement, given Snowflake IDs up front, and then written with three JDBC batch inserts (master,
+ * detail, credential) in its own transaction. Users are created ACTIVE with their hashed ID already
+ * set, so no row is written twice. The connection's rewriteBatchedStatements turns each batch into
+ * multi-row INSERTs.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    static final int MAX_USER_CODE_LENGTH = 50;   // auth_user.user_code
+    static final int MAX_EMAIL_LENGTH = 255;      // auth_user_detail.email
+    static final int MIN_PASSWORD_LENGTH = 6;     // Same bounds as the password DTOs
+    static final int MAX_PASSWORD_LENGTH = 100;
+    static final long DEFAULT_SESSION_VALIDITY = 86400000L;
+
+    private static final String INSERT_MASTER_SQL = """
+        INSERT INTO auth_user (id, user_code, record_status, active_version, hashed_id, hashed_id_version,
+            created_at, updated_at, created_by, updated_by)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_DETAIL_SQL = """
+        INSERT INTO auth_user_detail (id, parent_id, username, email, session_validity,
+            created_at, updated_at, created_by, updated_by)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_CREDENTIAL_SQL = """
+        INSERT INTO auth_user_credential (id, parent_id, hash_password, mfa_enforced, mfa_enabled,
+            created_at, updated_at, created_by, updated_by)
+        VALUES (?, ?, ?, FALSE, FALSE, ?, ?, ?, ?)
+        """;
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final UserProjectionService userProjectionService;
+    private final UserSearchCounter userSearchCounter;
+    private final UserSearchIndex userSearchIndex;
+    private final SecurityHashUtil securityHashUtil;
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 UserService userService,
+                                 UserProjectionService userProjectionService,
+                                 UserSearchCounter userSearchCounter,
+                                 UserSearchIndex userSearchIndex,
+                                 SecurityHashUtil securityHashUtil,
+                                 SnowflakeIdGenerator snowflakeIdGenerator,
+                                 PasswordEncoder passwordEncoder,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.user-import.chunk-size:500}") int chunkSize,
+                                 @Value("${app.user-import.max-errors:1000}") int maxErrors) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.userProjectionService = userProjectionService;
+        this.userSearchCounter = userSearchCounter;
+        this.userSearchIndex = userSearchIndex;
+        this.securityHashUtil = securityHashUtil;
+        this.snowflakeIdGenerator = snowflakeIdGenerator;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * One data row of the upload, filled in as it passes the checks
+     */
+    static final class ImportRow {
+        final long line;
+        String userCode;
+        String username;
+        String email;
+        String sessionValidity;
+        String password;
+
+        // Set by the reader when the row cannot be parsed at all
+        String parseError;
+        boolean rejected;
+
+        // Assigned once the row is accepted
+        UserDTO user;
+        long masterId;
+        long detailId;
+        long credentialId;
+        String hashedPassword;
+
+        ImportRow(long line) {
+            this.line = line;
+        }
+    }
+
+    /**
+     * Counters and duplicate-detection sets for the whole import
+     */
+    private final class ImportState {
+        final UserImportResultDTO result = new UserImportResultDTO();
+        // Lower-cased values claimed by earlier rows of this upload
+        final Set<String> usernames = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        final Set<String> userCodes = new HashSet<>();
+
+        void reject(ImportRow row, String field, ErrorCodes code, String message) {
+            if (!row.rejected) {
+                row.rejected = true;
+                result.setFailedCount(result.getFailedCount() + 1);
+            }
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new RowError(row.line, field, code.getCode(), message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next data row, or null at end of input
+         */
+        ImportRow next() throws IOException;
+    }
+
+    @Override
+    public UserImportResultDTO importUsers(InputStream in, UserExportFormat format, String hashedCurrentUserId) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Long currentUserId = securityHashUtil.decodeHashedUserId(hashedCurrentUserId);
+        if (currentUserId == null) {
+            throw new ValidationException(ErrorCodes.ENCRYPTED_ID_INVALID, "Invalid hashed current user ID");
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == UserExportFormat.NDJSON ? ndjsonRows(reader) : csvRows(reader);
+
+        ImportState state = new ImportState();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                importChunk(chunk, currentUserId, state);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, currentUserId, state);
+        }
+
+        UserImportResultDTO result = state.result;
+        result.setDurationMs(System.currentTimeMillis() - startedAt);
+        logger.info("User import finished: {} rows, {} created, {} failed in {} ms",
+            result.getTotalRows(), result.getCreatedCount(), result.getFailedCount(), result.getDurationMs());
+        return result;
+    }
+
+    // ====== Chunk Processing ======
+
+    private void importChunk(List<ImportRow> chunk, Long currentUserId, ImportState state) {
+        List<RowError> errors = state.result.getErrors();
+        int firstError = errors.size();
+        processChunk(chunk, currentUserId, state);
+        // Rows are rejected in several passes; report them in file order
+        errors.subList(firstError, errors.size()).sort(Comparator.comparingLong(RowError::getLine));
+    }
+
+    private void processChunk(List<ImportRow> chunk, Long currentUserId, ImportState state) {
+        UserImportResultDTO result = state.result;
+        result.setTotalRows(result.getTotalRows() + chunk.size());
+
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (validateRow(row, state) && claimInFile(row, state)) {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One round trip for every username, email and user code the chunk would take
+        Set<String> usernames = new LinkedHashSet<>();
+        Set<String> emails = new LinkedHashSet<>();
+        Set<String> userCodes = new LinkedHashSet<>();
+        for (ImportRow row : candidates) {
+            usernames.add(lower(row.username));
+            emails.add(lower(row.email));
+            userCodes.add(row.userCode != null ? lower(row.userCode) : userCodeBase(row.username));
+        }
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenUserCodes = new HashSet<>();
+        for (UserDTO taken : userRepository.findTakenIdentifiers(usernames, emails, userCodes)) {
+            if (taken.getUsername() != null) {
+                takenUsernames.add(taken.getUsername());
+            } else if (taken.getEmail() != null) {
+                takenEmails.add(taken.getEmail());
+            } else if (taken.getUserCode() != null) {
+                takenUserCodes.add(taken.getUserCode());
+            }
+        }
+
+        List<ImportRow> accepted = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (takenUsernames.contains(lower(row.username))) {
+                state.reject(row, "username", ErrorCodes.USERNAME_ALREADY_EXISTS, "Username already exists: " + row.username);
+            }
+            if (takenEmails.contains(lower(row.email))) {
+                state.reject(row, "email", ErrorCodes.EMAIL_ALREADY_EXISTS, "Email already exists: " + row.email);
+            }
+            if (row.userCode != null && takenUserCodes.contains(lower(row.userCode))) {
+                state.reject(row, "userCode", ErrorCodes.USER_CODE_ALREADY_EXISTS, "User code already exists: " + row.userCode);
+            }
+            if (row.rejected) {
+                continue;
+            }
+
+            row.masterId = snowflakeIdGenerator.nextId();
+            row.detailId = snowflakeIdGenerator.nextId();
+            if (row.userCode == null) {
+                String base = userCodeBase(row.username);
+                row.userCode = !takenUserCodes.contains(base) && state.userCodes.add(base)
+                    ? base
+                    : suffixedUserCode(base, row.masterId);
+                state.userCodes.add(lower(row.userCode));
+            }
+            if (row.password != null) {
+                row.credentialId = snowflakeIdGenerator.nextId();
+            }
+            accepted.add(row);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // BCrypt dominates the cost of a chunk; hash outside the transaction and in parallel
+        accepted.parallelStream()
+            .filter(row -> row.password != null)
+            .forEach(row -> row.hashedPassword = passwordEncoder.encode(row.password));
+
+        try {
+            insertChunk(accepted, currentUserId);
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("User import chunk of {} rows starting at line {} was rolled back", accepted.size(), accepted.get(0).line, e);
+            for (ImportRow row : accepted) {
+                state.reject(row, null, ErrorCodes.DATABASE_CONSTRAINT_VIOLATION,
+                    "Row could not be saved; its chunk was rolled back");
+            }
+            return;
+        }
+
+        for (ImportRow row : accepted) {
+            securityHashUtil.registerUserId(row.masterId);
+        }
+        result.setCreatedCount(result.getCreatedCount() + accepted.size());
+    }
+
+    private void insertChunk(List<ImportRow> accepted, Long currentUserId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Integer keyVersion = securityHashUtil.getKeyVersion();
+
+        List<Object[]> masters = new ArrayList<>(accepted.size());
+        List<Object[]> details = new ArrayList<>(accepted.size());
+        List<Object[]> credentials = new ArrayList<>(accepted.size());
+        List<Long> userIds = new ArrayList<>(accepted.size());
+        for (ImportRow row : accepted) {
+            masters.add(new Object[] {
+                row.masterId, row.userCode, RecordStatus.ACTIVE.getCode(), row.detailId,
+                securityHashUtil.hmacUserId(row.masterId), keyVersion, now, now, currentUserId, currentUserId
+            });
+            Long sessionValidity = row.user.getSessionValidity();
+            details.add(new Object[] {
+                row.detailId, row.masterId, row.user.getUsername(), row.user.getEmail(),
+                sessionValidity != null ? sessionValidity : DEFAULT_SESSION_VALIDITY,
+                now, now, currentUserId, currentUserId
+            });
+            if (row.hashedPassword != null) {
+                credentials.add(new Object[] {
+                    row.credentialId, row.masterId, row.hashedPassword, now, now, currentUserId, currentUserId
+                });
+            }
+            userIds.add(row.masterId);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_MASTER_SQL, masters);
+            jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, details);
+            if (!credentials.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_CREDENTIAL_SQL, credentials);
+            }
+            userProjectionService.refreshUsers(userIds);
+            // Applied after commit, as for single creates
+            userSearchCounter.recordTransition(null, RecordStatus.ACTIVE.getCode(), accepted.size());
+            for (ImportRow row : accepted) {
+                userSearchIndex.indexUser(row.masterId, row.userCode, row.user.getUsername(), row.user.getEmail());
+            }
+        });
+    }
+
+    /**
+     * Apply the single-create validation plus the column limits it leaves to the database
+     * @return true if the row is valid
+     */
+    private boolean validateRow(ImportRow row, ImportState state) {
+        if (row.parseError != null) {
+            state.reject(row, null, ErrorCodes.VALIDATION_FAILED, row.parseError);
+            return false;
+        }
+
+        UserDTO user = new UserDTO();
+        user.setUsername(row.username);
+        user.setEmail(row.email);
+        user.setUserCode(row.userCode);
+        if (row.sessionValidity != null) {
+            try {
+                user.setSessionValidity(Long.valueOf(row.sessionValidity));
+            } catch (NumberFormatException e) {
+                state.reject(row, "sessionValidity", ErrorCodes.INVALID_NUMBER_FORMAT,
+                    "Session validity must be a number of milliseconds");
+            }
+        }
+        try {
+            userService.validateUserData(user, false);
+        } catch (ValidationException e) {
+            if (e.getFieldErrors() == null || e.getFieldErrors().isEmpty()) {
+                state.reject(row, null, e.getErrorCode(), e.getMessage());
+            } else {
+                e.getFieldErrors().forEach((field, message) -> state.reject(row, field, e.getErrorCode(), message));
+            }
+        }
+        if (row.email != null && row.email.length() > MAX_EMAIL_LENGTH) {
+            state.reject(row, "email", ErrorCodes.FIELD_TOO_LONG, "Email must be at most " + MAX_EMAIL_LENGTH + " characters");
+        }
+        if (row.userCode != null && row.userCode.length() > MAX_USER_CODE_LENGTH) {
+            state.reject(row, "userCode", ErrorCodes.FIELD_TOO_LONG, "User code must be at most " + MAX_USER_CODE_LENGTH + " characters");
+        }
+        if (row.password != null && row.password.length() < MIN_PASSWORD_LENGTH) {
+            state.reject(row, "password", ErrorCodes.FIELD_TOO_SHORT, "Password must be at least " + MIN_PASSWORD_LENGTH + " characters");
+        } else if (row.password != null && row.password.length() > MAX_PASSWORD_LENGTH) {
+            state.reject(row, "password", ErrorCodes.FIELD_TOO_LONG, "Password must be at most " + MAX_PASSWORD_LENGTH + " characters");
+        }
+
+        row.user = user;
+        return !row.rejected;
+    }
+
+    /**
+     * Claim the row's username, email and user code against earlier rows of the same upload
+     * @return true if none was claimed before
+     */
+    private boolean claimInFile(ImportRow row, ImportState state) {
+        String username = lower(row.username);
+        String email = lower(row.email);
+        String userCode = row.userCode != null ? lower(row.userCode) : null;
+
+        if (state.usernames.contains(username)) {
+            state.reject(row, "username", ErrorCodes.DUPLICATE_VALUE, "Username appears more than once in the import: " + row.username);
+        }
+        if (state.emails.contains(email)) {
+            state.reject(row, "email", ErrorCodes.DUPLICATE_VALUE, "Email appears more than once in the import: " + row.email);
+        }
+        if (userCode != null && state.userCodes.contains(userCode)) {
+            state.reject(row, "userCode", ErrorCodes.DUPLICATE_VALUE, "User code appears more than once in the import: " + row.userCode);
+        }
+        if (row.rejected) {
+            return false;
+        }
+
+        state.usernames.add(username);
+        state.emails.add(email);
+        if (userCode != null) {
+            state.userCodes.add(userCode);
+        }
+        return true;
+    }
+
+    /**
+     * Generated user code for a username, as UserServiceImpl.generateUniqueUserCode starts from
+     */
+    static String userCodeBase(String username) {
+        String base = username.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        if (base.isEmpty()) {
+            base = "user";
+        }
+        return base.length() > MAX_USER_CODE_LENGTH ? base.substring(0, MAX_USER_CODE_LENGTH) : base;
+    }
+
+    /**
+     * Unique fallback when the base code is taken: the user's own ID, base 36, as suffix
+     */
+    static String suffixedUserCode(String base, long userId) {
+        String suffix = "_" + Long.toString(userId, 36);
+        int baseLength = Math.min(base.length(), MAX_USER_CODE_LENGTH - suffix.length());
+        return base.substring(0, baseLength) + suffix;
+    }
+
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String clean(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    // ====== Readers ======
+
+    private RowReader csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED, "CSV import is empty; a header row is required");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        if (!columns.containsKey("username") || !columns.containsKey("email")) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED,
+                "CSV header must contain username and email columns; userCode, sessionValidity and password are optional");
+        }
+
+        return () -> {
+            List<String> fields;
+            do {
+                fields = records.next();
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+
+            ImportRow row = new ImportRow(records.getRecordLine());
+            if (records.isUnterminated()) {
+                row.parseError = "Quoted field is not closed before the end of the file";
+                return row;
+            }
+            row.userCode = clean(column(fields, columns.get("usercode")));
+            row.username = clean(column(fields, columns.get("username")));
+            row.email = clean(column(fields, columns.get("email")));
+            row.sessionValidity = clean(column(fields, columns.get("sessionvalidity")));
+            row.password = column(fields, columns.get("password"));
+            if (row.password != null && row.password.isEmpty()) {
+                row.password = null;
+            }
+            return row;
+        };
+    }
+
+    private static String column(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private RowReader ndjsonRows(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+
+            ImportRow row = new ImportRow(lineNumber[0]);
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                row.parseError = "Line is not valid JSON";
+                return row;
+            }
+            if (node == null || !node.isObject()) {
+                row.parseError = "Each line must be a JSON object";
+                return row;
+            }
+            row.userCode = clean(text(node, "userCode"));
+            row.username = clean(text(node, "username"));
+            row.email = clean(text(node, "email"));
+            row.sessionValidity = clean(text(node, "sessionValidity"));
+            row.password = text(node, "password");
+            if (row.password != null && row.password.isEmpty()) {
+                row.password = null;
+            }
+            return row;
+        };
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    /**
+     * Reads RFC 4180 records: comma-separated fields, optionally double-quoted, with "" for a quote
+     * inside a quoted field. Quoted fields may span lines.
+     */
+    static final class CsvRecordReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+        private long recordLine;
+        private boolean unterminated;
+
+        CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the fields of the next record, or null at end of input
+         */
+        List<String> next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            recordLine = ++lineNumber;
+            unterminated = false;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char ch = line.charAt(i);
+                    if (quoted) {
+                        if (ch != '"') {
+                            field.append(ch);
+                        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (ch == '"') {
+                        quoted = true;
+                    } else if (ch == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(ch);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    unterminated = true;
+                    break;
+                }
+                lineNumber++;
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        /**
+         * Line on which the last record returned by next() starts
+         */
+        long getRecordLine() {
+            return recordLine;
+        }
+
+        /**
+         * Whether the last record ended inside a quoted field
+         */
+        boolean isUnterminated() {
+            return unterminated;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.zenmgt.service;
+
+import java.util.Collection;
+
+/**
+ * Maintains auth_user_current, the single-table read model of each user's current state
+ */
+public interface UserProjectionService {
+    
+    /**
+     * Re-project one user from the source tables.
+     * Call after the user's source rows change, inside the same transaction.
+     */
+    void refreshUser(Long userId);
+    
+    /**
+     * Re-project a set of users, e.g. one bulk import chunk, with one statement over their ID range.
+     * Call inside the transaction that wrote them.
+     */
+    void refreshUsers(Collection<Long> userIds);
+    
+    /**
+     * Re-project every user in primary key order, one batch per statement, and remove rows
+     * for users that no longer have an active version. Safe to run while the application serves traffic.
+     * @return number of users projected
+     */
+    int rebuild();
+}
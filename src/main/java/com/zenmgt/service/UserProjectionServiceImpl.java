@@ -0,0 +1,70 @@
+package com.zenmgt.service;
+
+import com.zenmgt.repository.UserProjectionRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * User Projection Service Implementation
+ * Every write re-derives the user's row from the source tables instead of patching individual
+ * columns, so the projection cannot drift from what the old joins returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserProjectionServiceImpl implements UserProjectionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserProjectionServiceImpl.class);
+    
+    private final UserProjectionRepository userProjectionRepository;
+    private final UserSearchResultCache userSearchResultCache;
+    
+    @Value("${app.user-projection.rebuild-batch-size:1000}")
+    private int batchSize;
+    
+    @Override
+    public void refreshUser(Long userId) {
+        if (userId != null) {
+            userProjectionRepository.refreshUser(userId);
+            // Every user write lands here, so this is where cached search results go stale
+            userSearchResultCache.invalidateAll();
+        }
+    }
+    
+    @Override
+    public void refreshUsers(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        // Other users inside the range are re-derived unchanged
+        userProjectionRepository.refreshRange(Collections.min(userIds), Collections.max(userIds));
+        userSearchResultCache.invalidateAll();
+    }
+    
+    @Override
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        long lastId = Long.MIN_VALUE;
+        int projected = 0;
+        while (true) {
+            List<Long> ids = userProjectionRepository.findUserIdsAfter(lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            userProjectionRepository.refreshRange(ids.get(0), lastId);
+            projected += ids.size();
+        }
+        int removed = userProjectionRepository.deleteOrphans();
+        userSearchResultCache.invalidateAll();
+        logger.info("Rebuilt user projection: {} users projected, {} stale rows removed in {} ms",
+            projected, removed, System.currentTimeMillis() - started);
+        return projected;
+    }
+}
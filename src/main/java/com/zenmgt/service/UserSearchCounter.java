@@ -0,0 +1,157 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Totals for paginated user searches.
+ *
+ * Exact totals use a count query without the approval join or ORDER BY, and run on the
+ * task executor so they overlap with the page fetch. Searches without row filters
+ * (see UserSearchCriteria.hasRowFilters) can instead be answered from per-record-status counters that are adjusted as user
+ * writes commit and re-synced from a GROUP BY periodically; those totals are flagged as estimates.
+ */
+@Component
+public class UserSearchCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchCounter.class);
+
+    private static final int STATUS_SLOTS = 8;
+
+    /**
+     * A search total and whether it came from an exact count
+     */
+    public record SearchTotal(long total, boolean exact) {
+    }
+
+    private final UserRepository userRepository;
+    private final TaskExecutor taskExecutor;
+    private final boolean estimateUnfiltered;
+
+    private final AtomicLongArray statusCounts = new AtomicLongArray(STATUS_SLOTS);
+    // Counters are only served once loaded, and not after an untracked status change until re-synced
+    private volatile boolean countersValid = false;
+
+    public UserSearchCounter(UserRepository userRepository,
+                             @Qualifier("taskExecutor") TaskExecutor taskExecutor,
+                             @Value("${app.user-search.count.estimate-unfiltered:true}") boolean estimateUnfiltered) {
+        this.userRepository = userRepository;
+        this.taskExecutor = taskExecutor;
+        this.estimateUnfiltered = estimateUnfiltered;
+    }
+
+    /**
+     * Start counting the users matching a search
+     * @param criteria Search criteria
+     * @param recordStatus Parsed single record status filter, or null
+     * @return The total; completes immediately when served from the counters
+     */
+    public CompletableFuture<SearchTotal> countAsync(UserSearchCriteria criteria, Integer recordStatus) {
+        if (estimateUnfiltered && countersValid && !criteria.hasRowFilters()) {
+            return CompletableFuture.completedFuture(new SearchTotal(estimate(recordStatus, criteria.getRecordStatusCodes()), false));
+        }
+        return CompletableFuture.supplyAsync(
+            () -> new SearchTotal(userRepository.countUsersWithRecordStatus(criteria, recordStatus), true),
+            taskExecutor);
+    }
+
+    /**
+     * Move one user between record statuses once the surrounding transaction commits
+     * @param fromStatus Previous status, or null for a new user
+     * @param toStatus New status
+     */
+    public void recordTransition(Integer fromStatus, Integer toStatus) {
+        recordTransition(fromStatus, toStatus, 1);
+    }
+
+    /**
+     * Move several users between the same record statuses once the surrounding transaction commits
+     */
+    public void recordTransition(Integer fromStatus, Integer toStatus, int count) {
+        Runnable apply = () -> {
+            adjust(fromStatus, -count);
+            adjust(toStatus, count);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * A status changed without the previous value being known; stop estimating until re-synced
+     */
+    public void markStale() {
+        countersValid = false;
+    }
+
+    /**
+     * Re-sync the counters from the database, correcting any drift from writes made elsewhere
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.user-search.count.resync-interval-ms:300000}",
+               initialDelayString = "${app.user-search.count.resync-interval-ms:300000}")
+    public void resync() {
+        if (!estimateUnfiltered) {
+            return;
+        }
+        try {
+            // Estimates pause while reloading; a transition racing the reload is corrected by the next re-sync
+            countersValid = false;
+            List<Map<String, Object>> stats = userRepository.countByRecordStatus();
+            for (int slot = 0; slot < STATUS_SLOTS; slot++) {
+                statusCounts.set(slot, 0);
+            }
+            for (Map<String, Object> stat : stats) {
+                Number status = (Number) stat.get("record_status");
+                Number count = (Number) stat.get("count");
+                if (status != null && count != null && status.intValue() >= 0 && status.intValue() < STATUS_SLOTS) {
+                    statusCounts.set(status.intValue(), count.longValue());
+                }
+            }
+            countersValid = true;
+        } catch (Exception e) {
+            logger.warn("Failed to re-sync user status counters: {}", e.getMessage());
+        }
+    }
+
+    private long estimate(Integer recordStatus, List<Integer> recordStatuses) {
+        long total = 0;
+        for (int slot = 0; slot < STATUS_SLOTS; slot++) {
+            // Both status filters apply together, as in the SQL
+            if ((recordStatus == null || recordStatus == slot)
+                    && (recordStatuses == null || recordStatuses.contains(slot))) {
+                total += Math.max(0, statusCounts.get(slot));
+            }
+        }
+        return total;
+    }
+
+    private void adjust(Integer status, int delta) {
+        if (status != null && status >= 0 && status < STATUS_SLOTS) {
+            statusCounts.addAndGet(status, delta);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserDTO;
+import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.repository.UserRepository;
+import com.zenmgt.util.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * In-process search index over the current version of every non-deleted user (user code, username, email),
+ * serving the globalSearch filter instead of leading-wildcard LIKEs that scan both user tables.
+ *
+ * Loaded by streaming the table once the application is ready, kept current by the user
+ * write paths after they commit, and rebuilt periodically to pick up writes made by other
+ * instances or outside this service. Until the first load completes, or for queries it
+ * cannot answer (shorter than 3 characters, or matching too many users), callers fall back to SQL.
+ * Deleted users are left out so they do not use up max-matches; searches that can return them go to SQL.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    /**
+     * sortBy value that orders globalSearch results by relevance
+     */
+    public static final String SORT_RELEVANCE = "relevance";
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int maxMatches;
+
+    private volatile TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready = false;
+    // Writes made while a rebuild streams the table, replayed onto the new index once it is swapped in
+    private volatile Queue<Consumer<TrigramIndex>> rebuildBuffer;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           @Value("${app.user-search.index.enabled:true}") boolean enabled,
+                           @Value("${app.user-search.index.max-matches:10000}") int maxMatches) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.maxMatches = maxMatches;
+    }
+
+    /**
+     * Find users whose user code, username or email contains the text
+     * @param text Search text
+     * @return Matching user IDs, best match first, or null if SQL has to answer this search
+     */
+    public List<Long> search(String text) {
+        if (!enabled || !ready) {
+            return null;
+        }
+        return index.search(text, maxMatches);
+    }
+
+    /**
+     * Find users matching the text under the search's status filters (single status and status list,
+     * both applied); the index holds no deleted users, so SQL answers any search that can return them
+     * @return Matching user IDs, best match first, or null if SQL has to answer this search
+     */
+    public List<Long> search(String text, Integer recordStatus, List<Integer> recordStatusCodes) {
+        return excludesDeleted(recordStatus, recordStatusCodes) ? search(text) : null;
+    }
+
+    static boolean excludesDeleted(Integer recordStatus, List<Integer> recordStatusCodes) {
+        int deleted = RecordStatus.DELETED.getCode();
+        return (recordStatus != null && recordStatus != deleted)
+            || (recordStatusCodes != null && !recordStatusCodes.contains(deleted));
+    }
+
+    /**
+     * Index a user's current version once the surrounding transaction commits
+     */
+    public void indexUser(Long userId, String userCode, String username, String email) {
+        afterCommit(target -> target.put(userId, username, userCode, email));
+    }
+
+    /**
+     * Drop a deleted user from the index once the surrounding transaction commits
+     */
+    public void removeUser(Long userId) {
+        afterCommit(target -> target.remove(userId));
+    }
+
+    /**
+     * Load the index in the background once the application is ready, then refresh it periodically
+     */
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.user-search.index.rebuild-interval-ms:900000}",
+               initialDelayString = "${app.user-search.index.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Queue<Consumer<TrigramIndex>> buffer = new ConcurrentLinkedQueue<>();
+        rebuildBuffer = buffer;
+        try {
+            long started = System.currentTimeMillis();
+            TrigramIndex rebuilt = new TrigramIndex();
+            userRepository.streamSearchIndexEntries(context -> {
+                UserDTO user = context.getResultObject();
+                rebuilt.put(user.getId(), user.getUsername(), user.getUserCode(), user.getEmail());
+            });
+
+            // Swap first so new writes land in the rebuilt index, then replay what raced the stream
+            index = rebuilt;
+            buffer.forEach(write -> write.accept(rebuilt));
+            ready = true;
+            logger.info("User search index loaded: {} users in {} ms", rebuilt.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            // Keep serving the previous index; searches fall back to SQL until a load succeeds
+            logger.error("Failed to build user search index: {}", e.getMessage(), e);
+        } finally {
+            rebuildBuffer = null;
+        }
+    }
+
+    private void afterCommit(Consumer<TrigramIndex> write) {
+        Runnable apply = () -> {
+            write.accept(index);
+            Queue<Consumer<TrigramIndex>> buffer = rebuildBuffer;
+            if (buffer != null) {
+                buffer.add(write);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
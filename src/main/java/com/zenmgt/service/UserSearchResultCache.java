@@ -0,0 +1,134 @@
+package com.zenmgt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zenmgt.dto.PagedResponseDTO;
+import com.zenmgt.dto.UserDTO;
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.enums.UserSearchMatchMode;
+import com.zenmgt.enums.UserSortField;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of user search results, for dashboards polling the same few searches.
+ *
+ * Keys are canonicalized criteria, so equivalent requests (whitespace, case, default sort,
+ * status list order) share an entry. Every user write bumps a generation counter that is part
+ * of the key, which makes all earlier entries unreachable at once; they age out by size or TTL.
+ * Cached pages are shared between callers and must not be modified.
+ */
+@Component
+public class UserSearchResultCache {
+
+    /**
+     * Canonical form of a search; equal for requests that return the same page
+     */
+    record SearchKey(long generation,
+                     String userCode, String username, String email, String globalSearch,
+                     String recordStatus, List<Integer> recordStatuses,
+                     LocalDateTime createdDateFrom, LocalDateTime createdDateTo,
+                     LocalDateTime updatedDateFrom, LocalDateTime updatedDateTo,
+                     LocalDateTime lastLoginFrom, LocalDateTime lastLoginTo,
+                     Long createdBy, Long updatedBy,
+                     String sort, boolean descending, int page, int pageSize,
+                     boolean keyset, String cursor, boolean includeTotal,
+                     UserSearchMatchMode matchMode, boolean caseSensitive) {
+    }
+
+    private final Cache<SearchKey, PagedResponseDTO<UserDTO>> cache;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserSearchResultCache(MeterRegistry meterRegistry,
+                                 @Value("${app.user-search.cache.enabled:true}") boolean enabled,
+                                 @Value("${app.user-search.cache.ttl:5s}") Duration ttl,
+                                 @Value("${app.user-search.cache.max-size:500}") long maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userSearchCache");
+        Gauge.builder("zenmgt.user_search_cache.hit_ratio", cache, c -> c.stats().hitRate())
+            .description("Share of user searches answered from the result cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the cached result of a search, running it on a miss. Failed searches are not cached.
+     * @param criteria Search criteria; keyed before the search runs, so the search may modify it
+     * @param search Runs the search
+     */
+    public PagedResponseDTO<UserDTO> get(UserSearchCriteria criteria, Supplier<PagedResponseDTO<UserDTO>> search) {
+        if (!enabled) {
+            return search.get();
+        }
+        // A write during the search bumps the generation, so its result is filed under a key no one reads
+        return cache.get(keyOf(criteria, generation.get()), key -> search.get());
+    }
+
+    /**
+     * Drop all cached results now and again when the surrounding transaction commits,
+     * so a search racing the write cannot re-cache pre-commit rows
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    static SearchKey keyOf(UserSearchCriteria criteria, long generation) {
+        // Text filters are compared under a case-insensitive collation unless caseSensitive is set
+        boolean caseSensitive = criteria.isCaseSensitive();
+        String globalSearch = text(criteria.getGlobalSearch(), caseSensitive);
+        String sort = globalSearch != null && UserSearchIndex.SORT_RELEVANCE.equalsIgnoreCase(criteria.getSortBy())
+            ? UserSearchIndex.SORT_RELEVANCE
+            : UserSortField.fromParam(criteria.getSortBy()).name();
+        boolean hasCursor = criteria.getCursor() != null && !criteria.getCursor().isEmpty();
+
+        return new SearchKey(generation,
+            text(criteria.getUserCode(), caseSensitive),
+            text(criteria.getUsername(), caseSensitive),
+            text(criteria.getEmail(), caseSensitive),
+            globalSearch,
+            text(criteria.getRecordStatus(), true),
+            criteria.getRecordStatusCodes(),
+            criteria.getCreatedDateFrom(), criteria.getCreatedDateTo(),
+            criteria.getUpdatedDateFrom(), criteria.getUpdatedDateTo(),
+            criteria.getLastLoginFrom(), criteria.getLastLoginTo(),
+            criteria.getCreatedBy(), criteria.getUpdatedBy(),
+            sort, criteria.isDescending(),
+            criteria.getPage() != null ? Math.max(1, criteria.getPage()) : 1,
+            criteria.getPageSize() != null ? criteria.getPageSize() : 20,
+            criteria.isKeysetPagination(), hasCursor ? criteria.getCursor() : null, criteria.isIncludeTotal(),
+            criteria.getEffectiveMatchMode(), caseSensitive);
+    }
+
+    private static String text(String value, boolean caseSensitive) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return caseSensitive ? trimmed : trimmed.toLowerCase(Locale.ROOT);
+    }
+}
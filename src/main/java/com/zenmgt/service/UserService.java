@@ -47,6 +47,13 @@ public interface UserService {
      */
     Optional<UserHashedDTO> getUserHashedByEncryptedId(String encryptedUserId);
     
+    /**
+     * Get several users by encrypted ID with one bulk decode and one query
+     * @param encryptedUserIds Encrypted user IDs, at most app.user-batch-get.max-ids
+     * @return Users keyed by the encrypted ID they were requested with; unknown IDs are absent
+     */
+    Map<String, UserHashedDTO> getUsersHashedByEncryptedIds(List<String> encryptedUserIds);
+    
     /**
      * Get user by internal ID
      * @param userId Internal user ID
@@ -344,4 +351,12 @@ public interface UserService {
      * @return Security status information
      */
     Map<String, Object> getUserSecurityStatus(String encryptedUserId);
+    
+    /**
+     * Log a user out of all sessions by revoking every token issued to them so far
+     * @param encryptedUserId Encrypted user ID
+     * @param hashedCurrentUserId Encrypted current user ID
+     * @return Session revocation result
+     */
+    Map<String, Object> revokeUserSessions(String encryptedUserId, String hashedCurrentUserId);
 } 
\ No newline at end of file
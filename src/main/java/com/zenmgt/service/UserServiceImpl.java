@@ -1,6 +1,7 @@
 package com.zenmgt.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.zenmgt.dto.UserAggregateDTO;
 import com.zenmgt.dto.UserDTO;
 import com.zenmgt.dto.UserHashedDTO;
 import com.zenmgt.dto.MfaSetupDTO;
@@ -9,8 +10,10 @@ import com.zenmgt.dto.MfaVerificationDTO;
 import com.zenmgt.dto.PagedResponseDTO;
 import com.zenmgt.dto.UserPagedResponseDTO;
 import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.dto.UserSearchCursor;
 import com.zenmgt.enums.ErrorCodes;
 import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.enums.UserSortField;
 import com.zenmgt.exception.BusinessException;
 import com.zenmgt.exception.ValidationException;
 import com.zenmgt.model.AuthUser;
@@ -19,6 +22,8 @@ import com.zenmgt.model.AuthUserDetail;
 import com.zenmgt.repository.AuthUserCredentialRepository;
 import com.zenmgt.repository.AuthUserDetailRepository;
 import com.zenmgt.repository.UserRepository;
+import com.zenmgt.security.AuthenticatedPrincipalCache;
+import com.zenmgt.util.CursorCodec;
 import com.zenmgt.util.SecurityHashUtil;
 
 import dev.samstevens.totp.code.CodeGenerator;
@@ -33,12 +38,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -55,8 +63,23 @@ public class UserServiceImpl implements UserService {
     private final AuthUserDetailRepository authUserDetailRepository;
     private final AuthUserCredentialRepository authUserCredentialRepository;
     private final SecurityHashUtil securityHashUtil;
+    private final CursorCodec cursorCodec;
+    private final UserSearchCounter userSearchCounter;
+    private final UserSearchIndex userSearchIndex;
+    private final UserSearchResultCache userSearchResultCache;
+    private final UserAggregateLoader userAggregateLoader;
+    private final UserProjectionService userProjectionService;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final TokenBlacklistService tokenBlacklistService;
     private final PasswordEncoder passwordEncoder;
     
+    @Value("${app.user-batch-get.max-ids:200}")
+    private int batchGetMaxIds;
+
+    // Tokens never outlive this, so a longer session validity could not be honoured
+    @Value("${app.token-revocation.max-token-lifetime-ms:604800000}")
+    private long maxTokenLifetimeMs;
+    
     // TOTP dependencies
     // TODO: Temporarily commented out to fix Spring startup - need proper TOTP configuration
     // private final SecretGenerator secretGenerator;
@@ -90,13 +113,12 @@ public class UserServiceImpl implements UserService {
             PagedResponseDTO<UserDTO> userResults = searchUsers(criteria);
             
             // Convert UserDTO list to UserHashedDTO list
-            List<UserHashedDTO> hashedDTOs = userResults.getData().stream()
-                .map(this::convertUserDTOToHashedDTO)
-                .collect(Collectors.toList());
+            List<UserHashedDTO> hashedDTOs = convertUserDTOsToHashedDTOs(userResults.getData());
             
             return PagedResponseDTO.<UserHashedDTO>builder()
                 .data(hashedDTOs)
                 .total(userResults.getTotal())
+                .totalExact(userResults.getTotalExact())
                 .page(userResults.getPage())
                 .totalPages(userResults.getTotalPages())
                 .pageSize(userResults.getPageSize())
@@ -128,20 +150,23 @@ public class UserServiceImpl implements UserService {
             logger.debug("User results: {}", userResults);
             
             // Convert UserDTO list to UserHashedDTO list
-            List<UserHashedDTO> hashedDTOs = userResults.getData().stream()
-                .map(this::convertUserDTOToHashedDTO)
-                .collect(Collectors.toList());
+            List<UserHashedDTO> hashedDTOs = convertUserDTOsToHashedDTOs(userResults.getData());
                 
             PagedResponseDTO<UserHashedDTO> pagedResponse = PagedResponseDTO.<UserHashedDTO>builder()
                 .data(hashedDTOs)
                 .total(userResults.getTotal())
+                .totalExact(userResults.getTotalExact())
                 .page(userResults.getPage())
                 .totalPages(userResults.getTotalPages())
                 .pageSize(userResults.getPageSize())
+                .nextCursor(userResults.getNextCursor())
+                .hasMore(userResults.getHasMore())
                 .build();
                 
             return UserPagedResponseDTO.from(pagedResponse);
             
+        } catch (BusinessException | ValidationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error searching users: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to search users", e);
@@ -169,16 +194,49 @@ public class UserServiceImpl implements UserService {
         }
     }
     
+    @Override
+    public Map<String, UserHashedDTO> getUsersHashedByEncryptedIds(List<String> encryptedUserIds) {
+        if (encryptedUserIds == null || encryptedUserIds.isEmpty()) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED, "At least one encrypted user ID is required");
+        }
+        if (encryptedUserIds.size() > batchGetMaxIds) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED,
+                "At most " + batchGetMaxIds + " encrypted user IDs per request");
+        }
+        logger.debug("Fetching {} users by encrypted ID", encryptedUserIds.size());
+        
+        try {
+            Map<String, Long> userIds = securityHashUtil.decodeHashedUserIds(encryptedUserIds);
+            List<UserDTO> users = new ArrayList<>(userAggregateLoader.loadByIds(userIds.values()).values());
+            List<UserHashedDTO> hashedUsers = convertUserDTOsToHashedDTOs(users);
+            
+            Map<Long, UserHashedDTO> byId = new HashMap<>();
+            for (int i = 0; i < users.size(); i++) {
+                byId.put(users.get(i).getId(), hashedUsers.get(i));
+            }
+            Map<String, UserHashedDTO> result = new LinkedHashMap<>();
+            userIds.forEach((encryptedUserId, userId) -> {
+                UserHashedDTO user = byId.get(userId);
+                if (user != null) {
+                    result.put(encryptedUserId, user);
+                }
+            });
+            return result;
+            
+        } catch (BusinessException | ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching users by encrypted IDs: {}", e.getMessage(), e);
+            throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to retrieve users");
+        }
+    }
+    
     @Override
     public Optional<UserHashedDTO> getUserHashedById(Long userId) {
         logger.debug("Fetching user by ID: {}", userId);
         
         try {
-            AuthUser user = userRepository.selectById(userId);
-            if (user == null) return Optional.empty();
-            
-            Optional<AuthUserDetail> detail = authUserDetailRepository.findByParentId(userId);
-            return Optional.of(convertToHashedDTO(user, detail.orElse(null)));
+            return userAggregateLoader.loadById(userId).map(this::convertUserDTOToHashedDTO);
             
         } catch (Exception e) {
             logger.error("Error fetching user by ID {}: {}", userId, e.getMessage(), e);
@@ -191,13 +249,7 @@ public class UserServiceImpl implements UserService {
         logger.debug("Fetching user by code: {}", userCode);
         
         try {
-            // Use the existing findByUsername method from repository  
-            Optional<AuthUser> userOpt = userRepository.findByUsername(userCode);
-            if (userOpt.isEmpty()) return Optional.empty();
-            
-            AuthUser user = userOpt.get();
-            Optional<AuthUserDetail> detail = authUserDetailRepository.findByParentId(user.getId());
-            return Optional.of(convertToHashedDTO(user, detail.orElse(null)));
+            return userAggregateLoader.loadByCode(userCode).map(this::convertUserDTOToHashedDTO);
             
         } catch (Exception e) {
             logger.error("Error fetching user by code {}: {}", userCode, e.getMessage(), e);
@@ -210,11 +262,7 @@ public class UserServiceImpl implements UserService {
         logger.debug("Fetching user DTO by ID: {}", userId);
         
         try {
-            AuthUser user = userRepository.selectById(userId);
-            if (user == null) return Optional.empty();
-            
-            Optional<AuthUserDetail> detail = authUserDetailRepository.findByParentId(userId);
-            return Optional.of(convertToDTO(user, detail.orElse(null)));
+            return userAggregateLoader.loadById(userId).map(UserDTO.class::cast);
             
         } catch (Exception e) {
             logger.error("Error fetching user DTO by ID {}: {}", userId, e.getMessage(), e);
@@ -232,13 +280,7 @@ public class UserServiceImpl implements UserService {
         logger.debug("Fetching user DTO by code: {}", userCode);
         
         try {
-            // Use the existing findByUsername method from repository
-            Optional<AuthUser> userOpt = userRepository.findByUsername(userCode);
-            if (userOpt.isEmpty()) return Optional.empty();
-            
-            AuthUser user = userOpt.get();
-            Optional<AuthUserDetail> detail = authUserDetailRepository.findByParentId(user.getId());
-            return Optional.of(convertToDTO(user, detail.orElse(null)));
+            return userAggregateLoader.loadByCode(userCode).map(UserDTO.class::cast);
             
         } catch (Exception e) {
             logger.error("Error fetching user DTO by code {}: {}", userCode, e.getMessage(), e);
@@ -299,6 +341,7 @@ public class UserServiceImpl implements UserService {
             // Insert master entity to get ID
             userRepository.insert(masterUser);
             Long masterId = masterUser.getId();
+            securityHashUtil.registerUserId(masterId);
             
             // Create detail entity (AuthUserDetail)
             AuthUserDetail detailUser = AuthUserDetail.builder()
@@ -316,14 +359,19 @@ public class UserServiceImpl implements UserService {
             authUserDetailRepository.insert(detailUser);
             Long detailId = detailUser.getId();
             
-            // Update master's active_version
+            // Update master's active_version and persist its hashed ID
             masterUser.setActiveVersion(detailId);
+            masterUser.setHashedId(securityHashUtil.hmacUserId(masterId));
+            masterUser.setHashedIdVersion(securityHashUtil.getKeyVersion());
             masterUser.setUpdatedAt(LocalDateTime.now());
             userRepository.updateById(masterUser);
             
             // For now, auto-activate (remove this when approval system is implemented)
             masterUser.setRecordStatus(RecordStatus.ACTIVE.getCode());
             userRepository.updateById(masterUser);
+            userProjectionService.refreshUser(masterId);
+            userSearchCounter.recordTransition(null, RecordStatus.ACTIVE.getCode());
+            userSearchIndex.indexUser(masterId, userCode, detailUser.getUsername(), detailUser.getEmail());
             
             logger.debug("Created user: ID={}, Code={}, Username={}", masterId, userCode, userDTO.getUsername());
             
@@ -365,7 +413,7 @@ public class UserServiceImpl implements UserService {
             
             // Get current master entity
             AuthUser masterUser = userRepository.selectById(userId);
-            if (masterUser == null || masterUser.getRecordStatus() == 3) { // 3 = deleted
+            if (masterUser == null || masterUser.getRecordStatus() == RecordStatus.DELETED.getCode()) {
                 throw new IllegalArgumentException("User not found or deleted: " + userId);
             }
             
@@ -402,6 +450,9 @@ public class UserServiceImpl implements UserService {
             
             // For now, auto-approve (remove this when approval system is implemented)
             updateMasterActiveVersion(userId, newDetailId, currentUserId);
+            userProjectionService.refreshUser(userId);
+            principalCache.invalidateUser(userId);
+            userSearchIndex.indexUser(userId, masterUser.getUserCode(), newDetail.getUsername(), newDetail.getEmail());
             
             logger.debug("Updated user: ID={}, NewDetailID={}", userId, newDetailId);
             
@@ -438,7 +489,7 @@ public class UserServiceImpl implements UserService {
         try {
             // Get current master entity
             AuthUser masterUser = userRepository.selectById(userId);
-            if (masterUser == null || masterUser.getRecordStatus() == 3) { // Already deleted
+            if (masterUser == null || masterUser.getRecordStatus() == RecordStatus.DELETED.getCode()) { // Already deleted
                 logger.warn("User not found or already deleted: {}", userId);
                 return false;
             }
@@ -468,6 +519,10 @@ public class UserServiceImpl implements UserService {
             
             // For now, auto-approve (remove this when approval system is implemented)
             markMasterAsDeleted(userId, deletedDetailId, currentUserId);
+            userProjectionService.refreshUser(userId);
+            securityHashUtil.evictUserId(userId);
+            principalCache.invalidateUser(userId);
+            userSearchIndex.removeUser(userId);
             
             logger.debug("Deleted user: ID={}, DeletedDetailID={}", userId, deletedDetailId);
             return true;
@@ -538,6 +593,11 @@ public class UserServiceImpl implements UserService {
     public boolean updateSessionValidity(Long userId, Long sessionValidityMs) {
         logger.debug("Updating session validity for user {}: {}ms", userId, sessionValidityMs);
         
+        if (sessionValidityMs != null && sessionValidityMs > maxTokenLifetimeMs) {
+            throw new ValidationException(ErrorCodes.VALIDATION_FAILED,
+                "Session validity must be at most " + maxTokenLifetimeMs + "ms");
+        }
+        
         try {
             // Get current detail
             Optional<AuthUserDetail> currentDetailOpt = authUserDetailRepository.findByParentId(userId);
@@ -550,6 +610,7 @@ public class UserServiceImpl implements UserService {
             currentDetail.setUpdatedAt(LocalDateTime.now());
             
             authUserDetailRepository.updateById(currentDetail);
+            userProjectionService.refreshUser(userId);
             return true;
             
         } catch (Exception e) {
@@ -672,6 +733,8 @@ public class UserServiceImpl implements UserService {
         
         if (userDTO.getSessionValidity() != null && userDTO.getSessionValidity() < 300000) { // Minimum 5 minutes
             fieldErrors.put("sessionValidity", "Session validity must be at least 5 minutes (300000ms)");
+        } else if (userDTO.getSessionValidity() != null && userDTO.getSessionValidity() > maxTokenLifetimeMs) {
+            fieldErrors.put("sessionValidity", "Session validity must be at most " + maxTokenLifetimeMs + "ms");
         }
         
         if (!fieldErrors.isEmpty()) {
@@ -738,11 +801,13 @@ public class UserServiceImpl implements UserService {
     private void markMasterAsDeleted(Long masterId, Long detailId, Long currentUserId) {
         AuthUser masterUser = userRepository.selectById(masterId);
         if (masterUser != null) {
+            Integer previousStatus = masterUser.getRecordStatus();
             masterUser.setActiveVersion(detailId);
-            masterUser.setRecordStatus(3); // 3 = Deleted
+            masterUser.setRecordStatus(RecordStatus.DELETED.getCode());
             masterUser.setUpdatedBy(currentUserId);
             masterUser.setUpdatedAt(LocalDateTime.now());
             userRepository.updateById(masterUser);
+            userSearchCounter.recordTransition(previousStatus, masterUser.getRecordStatus());
         }
     }
     
@@ -790,6 +855,9 @@ public class UserServiceImpl implements UserService {
             int updated = userRepository.updateRecordStatus(userId, newStatus.getCode(), currentUserId);
             
             if (updated > 0) {
+                userProjectionService.refreshUser(userId);
+                principalCache.invalidateUser(userId);
+                userSearchCounter.recordTransition(currentStatus.getCode(), newStatus.getCode());
                 logger.info("Toggled user status: ID={}, From={}, To={}", userId, currentStatus, newStatus);
                 return true;
             }
@@ -810,9 +878,21 @@ public class UserServiceImpl implements UserService {
         logger.debug("Updating user record status: ID={}, NewStatus={}", userId, newStatus);
         
         try {
+            AuthUser user = userRepository.selectById(userId);
             int updated = userRepository.updateRecordStatus(userId, newStatus.getCode(), currentUserId);
             
             if (updated > 0) {
+                userProjectionService.refreshUser(userId);
+                principalCache.invalidateUser(userId);
+                userSearchCounter.markStale();
+                // The search index holds non-deleted users only
+                boolean wasDeleted = user != null && user.getRecordStatus() == RecordStatus.DELETED.getCode();
+                if (newStatus == RecordStatus.DELETED && !wasDeleted) {
+                    userSearchIndex.removeUser(userId);
+                } else if (newStatus != RecordStatus.DELETED && wasDeleted) {
+                    authUserDetailRepository.findByParentId(userId).ifPresent(detail ->
+                        userSearchIndex.indexUser(userId, user.getUserCode(), detail.getUsername(), detail.getEmail()));
+                }
                 logger.info("Updated user record status: ID={}, Status={}", userId, newStatus);
                 return true;
             }
@@ -884,12 +964,14 @@ public class UserServiceImpl implements UserService {
     
     @Override
     public PagedResponseDTO<UserDTO> searchUsers(UserSearchCriteria criteria) {
+        criteria.normalizeText();
+        return userSearchResultCache.get(criteria, () -> runSearch(criteria));
+    }
+    
+    private PagedResponseDTO<UserDTO> runSearch(UserSearchCriteria criteria) {
         logger.debug("Searching users with criteria: {}", criteria);
         
         try {
-            Page<UserDTO> page = new Page<>(criteria.getPage() != null ? criteria.getPage() : 1, 
-                                          criteria.getPageSize() != null ? criteria.getPageSize() : 20);
-            
             // Convert single recordStatus string to Integer if provided
             Integer recordStatusInteger = null;
             if (criteria.getRecordStatus() != null && !criteria.getRecordStatus().trim().isEmpty()) {
@@ -902,25 +984,34 @@ public class UserServiceImpl implements UserService {
                 }
             }
             
+            UserSortField sortField = UserSortField.fromParam(criteria.getSortBy());
+            boolean descending = criteria.isDescending();
+            
+            if (StringUtils.hasText(criteria.getGlobalSearch())) {
+                // Resolve through the search index when it can answer; null keeps the SQL LIKE fallback
+                criteria.setMatchedUserIds(userSearchIndex.search(criteria.getGlobalSearch(),
+                    recordStatusInteger, criteria.getRecordStatusCodes()));
+                if (criteria.getMatchedUserIds() != null && !criteria.isKeysetPagination()
+                        && UserSearchIndex.SORT_RELEVANCE.equalsIgnoreCase(criteria.getSortBy())) {
+                    return searchUsersByRelevance(criteria, recordStatusInteger);
+                }
+            }
+            
+            if (criteria.isKeysetPagination()) {
+                return searchUsersByKeyset(criteria, recordStatusInteger, sortField, descending);
+            }
+            
+            Page<UserDTO> page = new Page<>(criteria.getPage() != null ? criteria.getPage() : 1, 
+                                          criteria.getPageSize() != null ? criteria.getPageSize() : 20);
+            // Count separately (cheaper query, overlapped with the page fetch) instead of the auto-COUNT
+            page.setSearchCount(false);
+            CompletableFuture<UserSearchCounter.SearchTotal> totalFuture =
+                userSearchCounter.countAsync(criteria, recordStatusInteger);
+            
             Page<UserDTO> result = userRepository.searchUsersWithRecordStatus(
-                page,
-                criteria.getUserCode(),
-                criteria.getUsername(),
-                criteria.getEmail(),
-                recordStatusInteger,  // Now passing Integer instead of String
-                criteria.getGlobalSearch(),
-                criteria.getCreatedDateFrom() != null ? 
-                    criteria.getCreatedDateFrom().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null,
-                criteria.getCreatedDateTo() != null ? 
-                    criteria.getCreatedDateTo().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null,
-                criteria.getLastLoginFrom() != null ? 
-                    criteria.getLastLoginFrom().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null,
-                criteria.getLastLoginTo() != null ? 
-                    criteria.getLastLoginTo().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null,
-                criteria.getSortBy() != null ? criteria.getSortBy() : "createdAt",
-                criteria.getSortDirection() != null ? criteria.getSortDirection() : "desc",
-                false // Don't include group count for performance
-            );
+                page, criteria, recordStatusInteger, sortField, descending);
+            UserSearchCounter.SearchTotal total = awaitTotal(totalFuture);
+            result.setTotal(total.total());
 
             logger.debug("User results2: {}", result);
             
@@ -930,17 +1021,123 @@ public class UserServiceImpl implements UserService {
             return PagedResponseDTO.<UserDTO>builder()
                 .data(result.getRecords())
                 .total(result.getTotal())
+                .totalExact(total.exact())
                 .page((int) result.getCurrent())
                 .totalPages((int) result.getPages())
                 .pageSize((int) result.getSize())
                 .build();
                 
+        } catch (BusinessException | ValidationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error searching users: {}", e.getMessage(), e);
             throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to search users");
         }
     }
     
+    /**
+     * Keyset page: seek past the cursor's (sort key, id) and read one extra row to know if more follow.
+     * The total is only counted when asked for, since it is the one part whose cost grows with the table.
+     */
+    private PagedResponseDTO<UserDTO> searchUsersByKeyset(UserSearchCriteria criteria, Integer recordStatus,
+            UserSortField sortField, boolean descending) {
+        int pageSize = criteria.getPageSize() != null ? criteria.getPageSize() : 20;
+        
+        UserSearchCursor cursor = null;
+        if (StringUtils.hasText(criteria.getCursor())) {
+            cursor = cursorCodec.decode(criteria.getCursor());
+            if (cursor.getSortField() != sortField || cursor.isDescending() != descending) {
+                throw new ValidationException(ErrorCodes.VALIDATION_FAILED, "Cursor does not match the requested sort order");
+            }
+        }
+        
+        CompletableFuture<UserSearchCounter.SearchTotal> totalFuture = criteria.isIncludeTotal()
+            ? userSearchCounter.countAsync(criteria, recordStatus)
+            : null;
+        
+        List<UserDTO> rows = userRepository.searchUsersAfterCursor(
+            criteria, recordStatus, sortField, descending, cursor, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UserDTO> data = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        data.forEach(this::enhanceUserDTO);
+        
+        String nextCursor = null;
+        if (hasMore) {
+            UserDTO last = data.get(data.size() - 1);
+            nextCursor = cursorCodec.encode(new UserSearchCursor(sortField, descending, sortField.keyOf(last), last.getId()));
+        }
+        
+        Long total = null;
+        Boolean totalExact = null;
+        int totalPages = 0;
+        if (totalFuture != null) {
+            UserSearchCounter.SearchTotal searchTotal = awaitTotal(totalFuture);
+            total = searchTotal.total();
+            totalExact = searchTotal.exact();
+            totalPages = (int) ((total + pageSize - 1) / pageSize);
+        }
+        
+        return PagedResponseDTO.<UserDTO>builder()
+            .data(data)
+            .total(total)
+            .totalExact(totalExact)
+            .page(criteria.getPage() != null ? criteria.getPage() : 1)
+            .totalPages(totalPages)
+            .pageSize(pageSize)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+    
+    /**
+     * Page through search index matches in relevance order. The SQL filters are applied to the
+     * bounded match set with one ID query, then only the requested page of users is loaded.
+     */
+    private PagedResponseDTO<UserDTO> searchUsersByRelevance(UserSearchCriteria criteria, Integer recordStatus) {
+        int page = criteria.getPage() != null ? Math.max(1, criteria.getPage()) : 1;
+        int pageSize = criteria.getPageSize() != null ? criteria.getPageSize() : 20;
+        
+        List<Long> ranked = criteria.getMatchedUserIds();
+        Set<Long> eligible = ranked.isEmpty()
+            ? Set.of()
+            : new HashSet<>(userRepository.findUserIdsMatching(criteria, recordStatus));
+        List<Long> matches = ranked.stream().filter(eligible::contains).toList();
+        
+        int from = Math.min(matches.size(), (page - 1) * pageSize);
+        List<Long> pageIds = matches.subList(from, Math.min(matches.size(), from + pageSize));
+        List<UserDTO> data = new ArrayList<>(pageIds.size());
+        if (!pageIds.isEmpty()) {
+            criteria.setMatchedUserIds(pageIds);
+            Map<Long, UserDTO> rows = userRepository.searchUsersAfterCursor(
+                    criteria, recordStatus, UserSortField.CREATED_AT, true, null, pageIds.size()).stream()
+                .collect(Collectors.toMap(UserDTO::getId, row -> row, (first, second) -> first));
+            for (Long id : pageIds) {
+                UserDTO row = rows.get(id);
+                if (row != null) {
+                    enhanceUserDTO(row);
+                    data.add(row);
+                }
+            }
+        }
+        
+        return PagedResponseDTO.<UserDTO>builder()
+            .data(data)
+            .total((long) matches.size())
+            .totalExact(true)
+            .page(page)
+            .totalPages((matches.size() + pageSize - 1) / pageSize)
+            .pageSize(pageSize)
+            .build();
+    }
+    
+    private static UserSearchCounter.SearchTotal awaitTotal(CompletableFuture<UserSearchCounter.SearchTotal> totalFuture) {
+        try {
+            return totalFuture.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
     /**
      * Enhance DTO with status descriptions
      */
@@ -962,26 +1159,61 @@ public class UserServiceImpl implements UserService {
     }
     
     /**
-     * Convert UserDTO to UserHashedDTO
+     * Convert a page of UserDTOs to UserHashedDTOs, hashing each distinct ID once
+     */
+    private List<UserHashedDTO> convertUserDTOsToHashedDTOs(List<UserDTO> userDTOs) {
+        List<Long> ids = new ArrayList<>(userDTOs.size() * 3);
+        for (UserDTO userDTO : userDTOs) {
+            if (userDTO == null) {
+                continue;
+            }
+            ids.add(userDTO.getId());
+            ids.add(userDTO.getCreatedBy());
+            ids.add(userDTO.getUpdatedBy());
+        }
+        Map<Long, String> hashedIds = securityHashUtil.hashUserIds(ids);
+        
+        return userDTOs.stream()
+            .map(userDTO -> convertUserDTOToHashedDTO(userDTO, hashedIds))
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Convert a single UserDTO to UserHashedDTO, hashing its IDs in one call
      */
     private UserHashedDTO convertUserDTOToHashedDTO(UserDTO userDTO) {
         if (userDTO == null) return null;
         
+        Map<Long, String> hashedIds = securityHashUtil.hashUserIds(
+            Arrays.asList(userDTO.getId(), userDTO.getCreatedBy(), userDTO.getUpdatedBy()));
+        return convertUserDTOToHashedDTO(userDTO, hashedIds);
+    }
+    
+    /**
+     * Convert UserDTO to UserHashedDTO using pre-computed hashed IDs
+     */
+    private UserHashedDTO convertUserDTOToHashedDTO(UserDTO userDTO, Map<Long, String> hashedIds) {
+        if (userDTO == null) return null;
+        
         return UserHashedDTO.builder()
-            .hashedUserId(securityHashUtil.hashUserId(userDTO.getId()))
+            .hashedUserId(hashedId(hashedIds, userDTO.getId()))
             .username(userDTO.getUsername())
             .email(userDTO.getEmail())
             .recordStatus(userDTO.getRecordStatus())
             .sessionKey(userDTO.getSessionKey())
             .lastLoginAt(userDTO.getLastLoginAt())
             .sessionValidity(userDTO.getSessionValidity())
-            .hashedCreatedBy(securityHashUtil.hashUserId(userDTO.getCreatedBy()))
-            .hashedUpdatedBy(securityHashUtil.hashUserId(userDTO.getUpdatedBy()))
+            .hashedCreatedBy(hashedId(hashedIds, userDTO.getCreatedBy()))
+            .hashedUpdatedBy(hashedId(hashedIds, userDTO.getUpdatedBy()))
             .createdAt(userDTO.getCreatedAt())
             .updatedAt(userDTO.getUpdatedAt())
             .build();
     }
     
+    private static String hashedId(Map<Long, String> hashedIds, Long id) {
+        return id != null ? hashedIds.get(id) : null;
+    }
+    
     // ====== User Security Management Operations ======
     
     @Override
@@ -1185,53 +1417,28 @@ public class UserServiceImpl implements UserService {
                 throw new ValidationException(ErrorCodes.ENCRYPTED_ID_INVALID, "Invalid encrypted user ID");
             }
             
-            // Check if user exists
-            AuthUser user = userRepository.selectById(userId);
-            if (user == null) {
-                throw new BusinessException(ErrorCodes.ENTITY_NOT_FOUND, "User not found");
-            }
-            
-            // Get credential record
-            Optional<AuthUserCredential> credentialOpt = authUserCredentialRepository.findByParentId(userId);
+            // User, credential flags and groups in one query
+            UserAggregateDTO user = userAggregateLoader.loadById(userId)
+                .orElseThrow(() -> new BusinessException(ErrorCodes.ENTITY_NOT_FOUND, "User not found"));
             
             Map<String, Object> result = new HashMap<>();
             result.put("encryptedUserId", encryptedUserId);
             result.put("username", user.getUserCode());
             
-            if (credentialOpt.isPresent()) {
-                AuthUserCredential credential = credentialOpt.get();
-                
-                // Password info
-                Map<String, Object> passwordInfo = new HashMap<>();
-                passwordInfo.put("hasPassword", credential.getHashPassword() != null && !credential.getHashPassword().isEmpty());
-                passwordInfo.put("lastUpdated", credential.getUpdatedAt());
-                result.put("password", passwordInfo);
-                
-                // MFA info
-                Map<String, Object> mfaInfo = new HashMap<>();
-                mfaInfo.put("enabled", credential.getMfaEnabled() != null && credential.getMfaEnabled());
-                mfaInfo.put("enforced", credential.getMfaEnforced() != null && credential.getMfaEnforced());
-                mfaInfo.put("hasSecret", credential.getMfaSecret() != null && !credential.getMfaSecret().isEmpty());
-                mfaInfo.put("hasRecoveryCodes", credential.getRecoveryCodes() != null && !credential.getRecoveryCodes().isEmpty());
-                mfaInfo.put("setupRequired", (credential.getMfaSecret() == null || credential.getMfaSecret().isEmpty()) 
-                    && (credential.getMfaEnabled() != null && credential.getMfaEnabled()));
-                result.put("mfa", mfaInfo);
-                
-            } else {
-                // No credentials found
-                Map<String, Object> passwordInfo = new HashMap<>();
-                passwordInfo.put("hasPassword", false);
-                passwordInfo.put("lastUpdated", null);
-                result.put("password", passwordInfo);
-                
-                Map<String, Object> mfaInfo = new HashMap<>();
-                mfaInfo.put("enabled", false);
-                mfaInfo.put("enforced", false);
-                mfaInfo.put("hasSecret", false);
-                mfaInfo.put("hasRecoveryCodes", false);
-                mfaInfo.put("setupRequired", false);
-                result.put("mfa", mfaInfo);
-            }
+            // Password info
+            Map<String, Object> passwordInfo = new HashMap<>();
+            passwordInfo.put("hasPassword", user.isHasPassword());
+            passwordInfo.put("lastUpdated", user.getCredentialUpdatedAt());
+            result.put("password", passwordInfo);
+            
+            // MFA info; all false when no credentials were found
+            Map<String, Object> mfaInfo = new HashMap<>();
+            mfaInfo.put("enabled", user.isMfaEnabled());
+            mfaInfo.put("enforced", user.isMfaEnforced());
+            mfaInfo.put("hasSecret", user.isHasMfaSecret());
+            mfaInfo.put("hasRecoveryCodes", user.isHasRecoveryCodes());
+            mfaInfo.put("setupRequired", !user.isHasMfaSecret() && user.isMfaEnabled());
+            result.put("mfa", mfaInfo);
             
             // User status
             result.put("recordStatus", user.getRecordStatus());
@@ -1248,6 +1455,42 @@ public class UserServiceImpl implements UserService {
         }
     }
     
+    @Override
+    public Map<String, Object> revokeUserSessions(String encryptedUserId, String hashedCurrentUserId) {
+        logger.debug("Revoking all sessions for encrypted user ID: {}", encryptedUserId);
+        
+        try {
+            Long userId = securityHashUtil.decodeHashedUserId(encryptedUserId);
+            Long currentUserId = securityHashUtil.decodeHashedUserId(hashedCurrentUserId);
+            
+            if (userId == null || currentUserId == null) {
+                throw new ValidationException(ErrorCodes.ENCRYPTED_ID_INVALID, "Invalid encrypted IDs");
+            }
+            
+            AuthUser user = userRepository.selectById(userId);
+            if (user == null) {
+                throw new BusinessException(ErrorCodes.ENTITY_NOT_FOUND, "User not found");
+            }
+            
+            // One epoch update invalidates every token issued to the user so far
+            tokenBlacklistService.revokeAllTokensForUser(user.getUserCode());
+            
+            logger.info("Revoked all sessions for user ID={} by user ID={}", userId, currentUserId);
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("encryptedUserId", encryptedUserId);
+            result.put("sessionsRevoked", true);
+            result.put("revokedAt", LocalDateTime.now());
+            return result;
+            
+        } catch (BusinessException | ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error revoking user sessions: {}", e.getMessage(), e);
+            throw new BusinessException(ErrorCodes.INTERNAL_ERROR, "Failed to revoke user sessions");
+        }
+    }
+    
     /**
      * Generate a temporary password
      */
@@ -0,0 +1,107 @@
+package com.zenmgt.util;
+
+import com.zenmgt.dto.UserSearchCursor;
+import com.zenmgt.enums.ErrorCodes;
+import com.zenmgt.enums.UserSortField;
+import com.zenmgt.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ * A token is URL-safe Base64 of "sortBy|A or D|id|type|value" followed by a truncated
+ * HMAC-SHA256 tag, so clients cannot forge positions or mix them across sort orders.
+ */
+@Component
+public class CursorCodec {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int TAG_LENGTH = 16;
+
+    private final SecretKeySpec secretKeySpec;
+
+    public CursorCodec(@Value("${app.pagination.cursor-secret:${app.jwt.secret-key}}") String secretKey) {
+        this.secretKeySpec = new SecretKeySpec(("CursorCodec:" + secretKey).getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    /**
+     * Encode a cursor as an opaque token
+     */
+    public String encode(UserSearchCursor cursor) {
+        StringBuilder payload = new StringBuilder()
+            .append(cursor.getSortField().getParam()).append('|')
+            .append(cursor.isDescending() ? 'D' : 'A').append('|')
+            .append(cursor.getId()).append('|');
+        Object value = cursor.getValue();
+        if (value instanceof LocalDateTime time) {
+            payload.append('T').append('|').append(time);
+        } else if (value instanceof Integer number) {
+            payload.append('I').append('|').append(number);
+        } else {
+            payload.append('S').append('|').append(value);
+        }
+
+        byte[] body = payload.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] token = Arrays.copyOf(body, body.length + TAG_LENGTH);
+        System.arraycopy(tag(body), 0, token, body.length, TAG_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    /**
+     * Decode a token produced by encode
+     * @throws ValidationException if the token is malformed or was not issued by this server
+     */
+    public UserSearchCursor decode(String token) {
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token);
+            if (raw.length <= TAG_LENGTH) {
+                throw invalid();
+            }
+            byte[] body = Arrays.copyOf(raw, raw.length - TAG_LENGTH);
+            byte[] tag = Arrays.copyOfRange(raw, body.length, raw.length);
+            if (!MessageDigest.isEqual(tag, tag(body))) {
+                throw invalid();
+            }
+
+            String[] parts = new String(body, StandardCharsets.UTF_8).split("\\|", 5);
+            if (parts.length != 5) {
+                throw invalid();
+            }
+            UserSortField sortField = UserSortField.fromParam(parts[0]);
+            boolean descending = "D".equals(parts[1]);
+            Long id = Long.parseLong(parts[2]);
+            Object value = switch (parts[3]) {
+                case "T" -> LocalDateTime.parse(parts[4]);
+                case "I" -> Integer.parseInt(parts[4]);
+                default -> parts[4];
+            };
+            return new UserSearchCursor(sortField, descending, value, id);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw invalid();
+        }
+    }
+
+    private byte[] tag(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKeySpec);
+            return Arrays.copyOf(mac.doFinal(body), TAG_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private static ValidationException invalid() {
+        return new ValidationException(ErrorCodes.VALIDATION_FAILED, "Invalid pagination cursor");
+    }
+}
@@ -5,12 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.util.FileCopyUtils;
 
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * Database initializer to run schema and data migrations on startup
@@ -20,6 +25,17 @@ import java.nio.charset.StandardCharsets;
 @RequiredArgsConstructor
 public class DatabaseInitializer implements CommandLineRunner {
 
+    /**
+     * Incremental migrations applied after the base schema, in order.
+     * Each script runs once and is recorded in sys_schema_migration.
+     */
+    private static final List<String> INCREMENTAL_MIGRATIONS = List.of(
+        "3_hashed_id.sql",
+        "4_user_lookup_lc.sql",
+        "5_user_current_projection.sql",
+        "6_legacy_deleted_status.sql"
+    );
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -69,8 +85,47 @@ public class DatabaseInitializer implements CommandLineRunner {
                 log.info("Database tables already exist. Skipping migration.");
             }
             
+            runIncrementalMigrations();
+            
         } catch (Exception e) {
             log.error("Error during database initialization: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Apply any incremental migration scripts that have not been recorded yet.
+     * Scripts run through ScriptUtils, which skips comments and honours quoted text, and each
+     * statement in them is idempotent, so a script that stopped partway is simply run again.
+     * A failing script aborts startup rather than leaving the schema behind the code.
+     */
+    private void runIncrementalMigrations() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS sys_schema_migration (
+                script VARCHAR(100) PRIMARY KEY,
+                applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """);
+
+        List<String> applied = jdbcTemplate.queryForList("SELECT script FROM sys_schema_migration", String.class);
+        for (String script : INCREMENTAL_MIGRATIONS) {
+            if (applied.contains(script)) {
+                continue;
+            }
+
+            log.info("Applying migration script {}", script);
+            EncodedResource resource = new EncodedResource(new ClassPathResource("db/migration/" + script), StandardCharsets.UTF_8);
+            try {
+                // One connection for the whole script: the guarded DDL uses session variables
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    ScriptUtils.executeSqlScript(connection, resource);
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Migration script " + script + " failed", e);
+            }
+            jdbcTemplate.update("INSERT INTO sys_schema_migration (script) VALUES (?)", script);
+            log.info("Migration script {} applied successfully", script);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.zenmgt.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory reverse index from hashed ID to raw database ID.
+ * Lets SecurityHashUtil resolve a hash with a map lookup instead of
+ * re-hashing every row until one matches.
+ *
+ * Thread-safe; entries are added incrementally on create and removed on delete.
+ */
+public class HashedIdIndex {
+
+    private final ConcurrentMap<String, Long> hashToId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> idToHash = new ConcurrentHashMap<>();
+
+    /**
+     * Look up the raw ID for a hash
+     * @param hash The hashed ID
+     * @return The raw ID, or null if not indexed
+     */
+    public Long get(String hash) {
+        return hash != null ? hashToId.get(hash) : null;
+    }
+
+    /**
+     * Add or replace the mapping for an ID
+     * @param id The raw ID
+     * @param hash The hashed ID
+     */
+    public void put(Long id, String hash) {
+        if (id == null || hash == null) {
+            return;
+        }
+        String previous = idToHash.put(id, hash);
+        if (previous != null && !previous.equals(hash)) {
+            hashToId.remove(previous, id);
+        }
+        hashToId.put(hash, id);
+    }
+
+    /**
+     * Remove the mapping for an ID
+     * @param id The raw ID
+     */
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        String hash = idToHash.remove(id);
+        if (hash != null) {
+            hashToId.remove(hash, id);
+        }
+    }
+
+    /**
+     * Check if an ID is already indexed
+     */
+    public boolean contains(Long id) {
+        return id != null && idToHash.containsKey(id);
+    }
+
+    public int size() {
+        return hashToId.size();
+    }
+
+    public void clear() {
+        hashToId.clear();
+        idToHash.clear();
+    }
+}
@@ -0,0 +1,147 @@
+package com.zenmgt.util;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * One-way HMAC-SHA256 codec (the original hashed ID format).
+ * Tokens are 43 character URL-safe Base64; decoding requires a lookup by hash.
+ *
+ * Each thread keeps a pre-initialized Mac plus reusable input, digest and
+ * output buffers, so encoding a domain prefix + id allocates only the result String.
+ */
+public class HmacIdCodec implements IdCodec {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final int TOKEN_LENGTH = 43; // ceil(32 * 4 / 3), no padding
+    private static final int MAX_DIGITS = 20;   // "-9223372036854775808"
+
+    private static final char[] BASE64_URL =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private final SecretKeySpec secretKeySpec;
+    private final ThreadLocal<Engine> engines;
+
+    public HmacIdCodec(String secretKey) {
+        this.secretKeySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.engines = ThreadLocal.withInitial(Engine::new);
+    }
+
+    @Override
+    public String encode(String domain, long id) {
+        return engines.get().hash(domain, id);
+    }
+
+    @Override
+    public Long decode(String domain, String token) {
+        return null;
+    }
+
+    @Override
+    public boolean isReversible() {
+        return false;
+    }
+
+    /**
+     * Per-thread HMAC state; Mac instances are not thread-safe
+     */
+    private final class Engine {
+
+        private final Mac mac;
+        private byte[] input = new byte[16 + MAX_DIGITS];
+        private final byte[] digest = new byte[MAC_LENGTH];
+        private final char[] output = new char[TOKEN_LENGTH];
+
+        Engine() {
+            try {
+                mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(secretKeySpec);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException("Failed to initialize HMAC", e);
+            }
+        }
+
+        String hash(String domain, long id) {
+            int length = writeInput(domain, id);
+            mac.update(input, 0, length);
+            try {
+                mac.doFinal(digest, 0); // also resets the Mac for the next call
+            } catch (ShortBufferException e) {
+                throw new RuntimeException("Failed to generate HMAC hash", e);
+            }
+            return encodeBase64Url();
+        }
+
+        /**
+         * Write the UTF-8 bytes of domain + Long.toString(id) into the input buffer
+         */
+        private int writeInput(String domain, long id) {
+            int domainLength = domain.length();
+            if (input.length < domainLength + MAX_DIGITS) {
+                input = new byte[domainLength + MAX_DIGITS];
+            }
+
+            int pos = 0;
+            for (int i = 0; i < domainLength; i++) {
+                char c = domain.charAt(i);
+                if (c >= 0x80) {
+                    // Domains are ASCII prefixes; fall back for anything else
+                    byte[] bytes = domain.getBytes(StandardCharsets.UTF_8);
+                    if (input.length < bytes.length + MAX_DIGITS) {
+                        input = new byte[bytes.length + MAX_DIGITS];
+                    }
+                    System.arraycopy(bytes, 0, input, 0, bytes.length);
+                    pos = bytes.length;
+                    break;
+                }
+                input[pos++] = (byte) c;
+            }
+
+            if (id == Long.MIN_VALUE) {
+                byte[] min = Long.toString(id).getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(min, 0, input, pos, min.length);
+                return pos + min.length;
+            }
+            if (id < 0) {
+                input[pos++] = '-';
+                id = -id;
+            }
+
+            int digits = 1;
+            for (long v = id; v >= 10; v /= 10) {
+                digits++;
+            }
+            int end = pos + digits;
+            for (int i = end - 1; i >= pos; i--) {
+                input[i] = (byte) ('0' + (id % 10));
+                id /= 10;
+            }
+            return end;
+        }
+
+        /**
+         * URL-safe Base64 without padding of the 32 byte digest
+         */
+        private String encodeBase64Url() {
+            int out = 0;
+            int i = 0;
+            for (; i + 3 <= MAC_LENGTH; i += 3) {
+                int bits = (digest[i] & 0xff) << 16 | (digest[i + 1] & 0xff) << 8 | (digest[i + 2] & 0xff);
+                output[out++] = BASE64_URL[(bits >>> 18) & 0x3f];
+                output[out++] = BASE64_URL[(bits >>> 12) & 0x3f];
+                output[out++] = BASE64_URL[(bits >>> 6) & 0x3f];
+                output[out++] = BASE64_URL[bits & 0x3f];
+            }
+            // 32 = 3 * 10 + 2 remaining bytes -> 3 chars
+            int bits = (digest[i] & 0xff) << 16 | (digest[i + 1] & 0xff) << 8;
+            output[out++] = BASE64_URL[(bits >>> 18) & 0x3f];
+            output[out++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            output[out] = BASE64_URL[(bits >>> 6) & 0x3f];
+            return new String(output);
+        }
+    }
+}
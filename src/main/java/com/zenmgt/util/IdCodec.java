@@ -0,0 +1,29 @@
+package com.zenmgt.util;
+
+/**
+ * Converts raw database IDs to the opaque tokens exposed to the frontend and back.
+ * The domain (e.g. "USER_", "GROUP_") keeps tokens for different entity types apart.
+ */
+public interface IdCodec {
+
+    /**
+     * Encode an ID as a URL-safe token
+     * @param domain The entity domain prefix
+     * @param id The raw ID
+     * @return URL-safe token
+     */
+    String encode(String domain, long id);
+
+    /**
+     * Decode a token back to the raw ID without any lookup
+     * @param domain The entity domain prefix
+     * @param token The token from the frontend
+     * @return The raw ID, or null if the token is invalid or this codec is one-way
+     */
+    Long decode(String domain, String token);
+
+    /**
+     * Whether decode can recover IDs on its own; one-way codecs need the lookup path
+     */
+    boolean isReversible();
+}
@@ -1,53 +1,288 @@
 package com.zenmgt.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class SecurityHashUtil {
     
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Logger logger = LoggerFactory.getLogger(SecurityHashUtil.class);
+    
+    private static final String CODEC_MODE_ENCRYPTED = "encrypted";
+    // Batches at least this large are hashed on the common fork-join pool
+    private static final int PARALLEL_HASH_THRESHOLD = 256;
     private static final String USER_PREFIX = "USER_";
     private static final String GROUP_PREFIX = "GROUP_";
     
-    @Value("${app.jwt.secret-key}")
+    private static final String USER_IDS_SQL = "SELECT id FROM auth_user WHERE record_status IN (0, 1, 2, 3, 4)";
+    private static final String GROUP_IDS_SQL = "SELECT DISTINCT user_group_id FROM user_group_member";
+    
+    // Persisted hashes: current and previous key version both resolve through a unique index
+    private static final String USER_BY_HASHED_ID_SQL =
+        "SELECT id FROM auth_user WHERE (hashed_id = ? OR prev_hashed_id = ?) AND record_status IN (0, 1, 2, 3, 4)";
+    // Batch form of the above; %s are the placeholder lists for hashed_id and prev_hashed_id
+    private static final String USERS_BY_HASHED_IDS_SQL =
+        "SELECT id, hashed_id, prev_hashed_id FROM auth_user WHERE (hashed_id IN (%s) OR prev_hashed_id IN (%s)) "
+            + "AND record_status IN (0, 1, 2, 3, 4)";
+    private static final String GROUP_BY_HASHED_ID_SQL =
+        "SELECT id FROM user_group WHERE hashed_id = ? OR prev_hashed_id = ?";
+    // Rows the backfill hasn't reached yet under the current key version
+    private static final String UNBACKFILLED_USER_IDS_SQL =
+        "SELECT id FROM auth_user WHERE record_status IN (0, 1, 2, 3, 4) AND (hashed_id IS NULL OR hashed_id_version <> ?)";
+    
+    @Value("${app.id-hash.secret-key:${app.jwt.secret-key}}")
     private String secretKey;
     
+    @Value("${app.id-hash.key-version:1}")
+    private Integer keyVersion;
+    
+    @Value("${app.id-codec.mode:hmac}")
+    private String codecMode;
+    
+    @Value("${app.id-codec.secret-key:${app.jwt.secret-key}}")
+    private String codecSecretKey;
+    
+    @Value("${app.id-codec.accept-legacy:true}")
+    private boolean acceptLegacy;
+    
+    @Value("${app.id-codec.cache.max-size:10000}")
+    private long hashCacheMaxSize;
+    
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Reverse indexes: hash -> raw ID, so decoding is a map lookup instead of a table scan
+    private final HashedIdIndex userIdIndex = new HashedIdIndex();
+    private final HashedIdIndex groupIdIndex = new HashedIdIndex();
+    
+    private Timer userIndexRebuildTimer;
+    private Timer groupIndexRebuildTimer;
+    private Counter userIndexHits;
+    private Counter userIndexMisses;
+    private Counter groupIndexHits;
+    private Counter groupIndexMisses;
+    
+    // HMAC codec backs the persisted/indexed hashes; the active codec produces the frontend tokens
+    private HmacIdCodec hmacCodec;
+    private IdCodec codec;
+    
+    // Bounded memo of user ID -> token; the same admin IDs recur on every page (createdBy/updatedBy)
+    private Cache<Long, String> userHashCache;
+    
+    @PostConstruct
+    void init() {
+        hmacCodec = new HmacIdCodec(secretKey);
+        codec = CODEC_MODE_ENCRYPTED.equalsIgnoreCase(codecMode) ? new EncryptedIdCodec(codecSecretKey) : hmacCodec;
+        logger.info("ID codec mode: {} (accept legacy HMAC tokens: {})", codec.isReversible() ? "encrypted" : "hmac", acceptLegacy);
+        
+        userHashCache = Caffeine.newBuilder()
+            .maximumSize(hashCacheMaxSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userHashCache, "hashedUserIdCache");
+        
+        Gauge.builder("zenmgt.hashed_id.index.size", userIdIndex, HashedIdIndex::size)
+            .description("Number of entries in the hashed ID reverse index")
+            .tag("type", "user")
+            .register(meterRegistry);
+        Gauge.builder("zenmgt.hashed_id.index.size", groupIdIndex, HashedIdIndex::size)
+            .description("Number of entries in the hashed ID reverse index")
+            .tag("type", "group")
+            .register(meterRegistry);
+        
+        userIndexRebuildTimer = Timer.builder("zenmgt.hashed_id.index.rebuild")
+            .description("Time taken to rebuild the hashed ID reverse index")
+            .tag("type", "user")
+            .register(meterRegistry);
+        groupIndexRebuildTimer = Timer.builder("zenmgt.hashed_id.index.rebuild")
+            .description("Time taken to rebuild the hashed ID reverse index")
+            .tag("type", "group")
+            .register(meterRegistry);
+        
+        userIndexHits = lookupCounter("user", "hit");
+        userIndexMisses = lookupCounter("user", "miss");
+        groupIndexHits = lookupCounter("group", "hit");
+        groupIndexMisses = lookupCounter("group", "miss");
+    }
+    
+    private Counter lookupCounter(String type, String result) {
+        return Counter.builder("zenmgt.hashed_id.index.lookups")
+            .description("Hashed ID decode lookups against the reverse index")
+            .tag("type", type)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Build the reverse indexes once the database is initialized.
+     * Hashing is spread over the common fork-join pool.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndexes() {
+        if (!usesLookupPath()) {
+            return;
+        }
+        rebuildIndex(userIdIndex, USER_IDS_SQL, USER_PREFIX, userIndexRebuildTimer);
+        rebuildIndex(groupIdIndex, GROUP_IDS_SQL, GROUP_PREFIX, groupIndexRebuildTimer);
+    }
+    
+    private void rebuildIndex(HashedIdIndex index, String idsSql, String prefix, Timer timer) {
+        try {
+            timer.record(() -> {
+                List<Long> ids = jdbcTemplate.queryForList(idsSql, Long.class);
+                ids.parallelStream().forEach(id -> index.put(id, hmacCodec.encode(prefix, id)));
+            });
+            logger.info("Built {} hashed ID index with {} entries", prefix, index.size());
+        } catch (Exception e) {
+            // Decoding still works through the fallback scan
+            logger.warn("Failed to build {} hashed ID index: {}", prefix, e.getMessage());
+        }
+    }
+    
+    /**
+     * Add a newly created user to the reverse index
+     * @param userId The user ID
+     */
+    public void registerUserId(Long userId) {
+        if (userId != null) {
+            userIdIndex.put(userId, hmacUserId(userId));
+        }
+    }
+    
+    /**
+     * Remove a deleted user from the reverse index
+     * @param userId The user ID
+     */
+    public void evictUserId(Long userId) {
+        userIdIndex.remove(userId);
+    }
+    
+    /**
+     * Add a user group to the reverse index
+     * @param userGroupId The user group ID
+     */
+    public void registerUserGroupId(Long userGroupId) {
+        if (userGroupId != null) {
+            groupIdIndex.put(userGroupId, hmacUserGroupId(userGroupId));
+        }
+    }
+    
+    /**
+     * Get the key version that hashUserId/hashUserGroupId currently hash under
+     * @return The current key version
+     */
+    public Integer getKeyVersion() {
+        return keyVersion;
+    }
+    
+    /**
+     * Whether decoding goes through the index/database lookup path
+     * (always in HMAC mode, only for legacy tokens in encrypted mode)
+     */
+    private boolean usesLookupPath() {
+        return !codec.isReversible() || acceptLegacy;
+    }
+    
     /**
      * Hash a user ID for security purposes
      * @param userId The user ID to hash
-     * @return Base64 encoded hash
+     * @return URL-safe token from the active ID codec
      */
     public String hashUserId(Long userId) {
         if (userId == null) {
             return null;
         }
-        return generateHmacHash(USER_PREFIX + userId);
+        return userHashCache.get(userId, id -> codec.encode(USER_PREFIX, id));
+    }
+    
+    /**
+     * Hash a batch of user IDs, computing each distinct ID at most once
+     * @param userIds The user IDs to hash (nulls are ignored)
+     * @return Map of user ID to token from the active ID codec
+     */
+    public Map<Long, String> hashUserIds(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> distinctIds = userIds.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        return userHashCache.getAll(distinctIds, this::encodeUserIds);
+    }
+    
+    private Map<Long, String> encodeUserIds(Set<? extends Long> userIds) {
+        Stream<? extends Long> ids = userIds.size() >= PARALLEL_HASH_THRESHOLD
+            ? userIds.parallelStream()
+            : userIds.stream();
+        return ids.collect(Collectors.toMap(id -> id, id -> codec.encode(USER_PREFIX, id)));
     }
     
     /**
      * Hash a user group ID for security purposes
      * @param userGroupId The user group ID to hash
-     * @return Base64 encoded hash
+     * @return URL-safe token from the active ID codec
      */
     public String hashUserGroupId(Long userGroupId) {
         if (userGroupId == null) {
             return null;
         }
-        return generateHmacHash(GROUP_PREFIX + userGroupId);
+        return codec.encode(GROUP_PREFIX, userGroupId);
+    }
+    
+    /**
+     * HMAC hash of a user ID, as persisted in auth_user.hashed_id
+     * @param userId The user ID to hash
+     * @return Base64 encoded hash
+     */
+    public String hmacUserId(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return hmacCodec.encode(USER_PREFIX, userId);
+    }
+    
+    /**
+     * HMAC hash of a user group ID, as persisted in user_group.hashed_id
+     * @param userGroupId The user group ID to hash
+     * @return Base64 encoded hash
+     */
+    public String hmacUserGroupId(Long userGroupId) {
+        if (userGroupId == null) {
+            return null;
+        }
+        return hmacCodec.encode(GROUP_PREFIX, userGroupId);
     }
     
     /**
@@ -60,27 +295,128 @@ public class SecurityHashUtil {
             return null;
         }
         
+        if (codec.isReversible()) {
+            Long decoded = codec.decode(USER_PREFIX, hashedUserId);
+            if (decoded != null || !acceptLegacy) {
+                return decoded;
+            }
+        }
+        
+        Long indexed = userIdIndex.get(hashedUserId);
+        if (indexed != null) {
+            userIndexHits.increment();
+            return indexed;
+        }
+        userIndexMisses.increment();
+        
+        Long persisted = findIdByHashedId(USER_BY_HASHED_ID_SQL, hashedUserId);
+        if (persisted != null) {
+            return persisted;
+        }
+        
         try {
-            // Get all user IDs from database and check against the hash
-            List<Long> userIds = jdbcTemplate.queryForList(
-                "SELECT id FROM auth_user WHERE record_status IN (0, 1, 2, 3, 4)", 
-                Long.class
-            );
+            // Miss path: hash only the not yet backfilled IDs the index doesn't know, indexing them as we go
+            List<Long> userIds = jdbcTemplate.queryForList(UNBACKFILLED_USER_IDS_SQL, Long.class, keyVersion);
             
             for (Long userId : userIds) {
-                String expectedHash = hashUserId(userId);
+                if (userIdIndex.contains(userId)) {
+                    continue;
+                }
+                String expectedHash = hmacUserId(userId);
+                userIdIndex.put(userId, expectedHash);
                 if (hashedUserId.equals(expectedHash)) {
                     return userId;
                 }
             }
         } catch (Exception e) {
             // Log error but don't expose it
-            System.err.println("Error decoding hashed user ID: " + e.getMessage());
+            logger.warn("Error decoding hashed user ID: {}", e.getMessage(), e);
         }
         
         return null; // Hash not found or invalid
     }
     
+    /**
+     * Decode many hashed user IDs at once: the same steps as decodeHashedUserId, but the persisted
+     * hashes are looked up with one IN query and the not yet backfilled rows are scanned at most once
+     * @param hashedUserIds Hashed user IDs from the frontend
+     * @return Original user ID per decodable hashed ID; invalid or unknown ones are absent
+     */
+    public Map<String, Long> decodeHashedUserIds(Collection<String> hashedUserIds) {
+        Map<String, Long> decoded = new LinkedHashMap<>();
+        Set<String> pending = new LinkedHashSet<>();
+        for (String hashedUserId : hashedUserIds) {
+            if (hashedUserId == null || hashedUserId.trim().isEmpty() || decoded.containsKey(hashedUserId)) {
+                continue;
+            }
+            if (codec.isReversible()) {
+                Long userId = codec.decode(USER_PREFIX, hashedUserId);
+                if (userId != null) {
+                    decoded.put(hashedUserId, userId);
+                    continue;
+                }
+                if (!acceptLegacy) {
+                    continue;
+                }
+            }
+            pending.add(hashedUserId);
+        }
+        
+        for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+            String hashedUserId = it.next();
+            Long indexed = userIdIndex.get(hashedUserId);
+            if (indexed != null) {
+                userIndexHits.increment();
+                decoded.put(hashedUserId, indexed);
+                it.remove();
+            } else {
+                userIndexMisses.increment();
+            }
+        }
+        if (pending.isEmpty()) {
+            return decoded;
+        }
+        
+        try {
+            String placeholders = String.join(",", Collections.nCopies(pending.size(), "?"));
+            List<Object> args = new ArrayList<>(pending);
+            args.addAll(pending);
+            jdbcTemplate.query(String.format(USERS_BY_HASHED_IDS_SQL, placeholders, placeholders), (RowCallbackHandler) rs -> {
+                Long userId = rs.getLong("id");
+                for (String hash : new String[] {rs.getString("hashed_id"), rs.getString("prev_hashed_id")}) {
+                    if (hash != null && pending.remove(hash)) {
+                        decoded.put(hash, userId);
+                    }
+                }
+            }, args.toArray());
+        } catch (Exception e) {
+            logger.warn("Hashed ID batch query failed, falling back to scan: {}", e.getMessage());
+        }
+        if (pending.isEmpty()) {
+            return decoded;
+        }
+        
+        try {
+            List<Long> userIds = jdbcTemplate.queryForList(UNBACKFILLED_USER_IDS_SQL, Long.class, keyVersion);
+            for (Long userId : userIds) {
+                if (userIdIndex.contains(userId)) {
+                    continue;
+                }
+                String expectedHash = hmacUserId(userId);
+                userIdIndex.put(userId, expectedHash);
+                if (pending.remove(expectedHash)) {
+                    decoded.put(expectedHash, userId);
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Error decoding hashed user IDs: {}", e.getMessage());
+        }
+        return decoded;
+    }
+    
     /**
      * Decode a hashed user group ID back to the original user group ID
      * @param hashedUserGroupId The hashed user group ID from frontend
@@ -91,27 +427,63 @@ public class SecurityHashUtil {
             return null;
         }
         
+        if (codec.isReversible()) {
+            Long decoded = codec.decode(GROUP_PREFIX, hashedUserGroupId);
+            if (decoded != null || !acceptLegacy) {
+                return decoded;
+            }
+        }
+        
+        Long indexed = groupIdIndex.get(hashedUserGroupId);
+        if (indexed != null) {
+            groupIndexHits.increment();
+            return indexed;
+        }
+        groupIndexMisses.increment();
+        
+        Long persisted = findIdByHashedId(GROUP_BY_HASHED_ID_SQL, hashedUserGroupId);
+        if (persisted != null) {
+            return persisted;
+        }
+        
         try {
-            // Get all user group IDs from database and check against the hash
-            List<Long> groupIds = jdbcTemplate.queryForList(
-                "SELECT DISTINCT user_group_id FROM user_group_member", 
-                Long.class
-            );
+            // Miss path: hash only the IDs the index doesn't know yet, indexing them as we go
+            List<Long> groupIds = jdbcTemplate.queryForList(GROUP_IDS_SQL, Long.class);
             
             for (Long groupId : groupIds) {
-                String expectedHash = hashUserGroupId(groupId);
+                if (groupIdIndex.contains(groupId)) {
+                    continue;
+                }
+                String expectedHash = hmacUserGroupId(groupId);
+                groupIdIndex.put(groupId, expectedHash);
                 if (hashedUserGroupId.equals(expectedHash)) {
                     return groupId;
                 }
             }
         } catch (Exception e) {
             // Log error but don't expose it
-            System.err.println("Error decoding hashed user group ID: " + e.getMessage());
+            logger.warn("Error decoding hashed user group ID: {}", e.getMessage(), e);
         }
         
         return null; // Hash not found or invalid
     }
     
+    /**
+     * Resolve a hash through the persisted hashed_id/prev_hashed_id columns
+     * @param sql Point query taking the hash twice
+     * @param hash The hashed ID
+     * @return The raw ID, or null if no row carries this hash
+     */
+    private Long findIdByHashedId(String sql, String hash) {
+        try {
+            List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, hash, hash);
+            return ids.isEmpty() ? null : ids.get(0);
+        } catch (Exception e) {
+            logger.warn("Hashed ID point query failed, falling back to scan: {}", e.getMessage());
+            return null;
+        }
+    }
+    
     /**
      * Verify if a hash matches the original user ID
      * @param userId The original user ID
@@ -123,7 +495,10 @@ public class SecurityHashUtil {
             return false;
         }
         String expectedHash = hashUserId(userId);
-        return expectedHash.equals(hash);
+        if (expectedHash.equals(hash)) {
+            return true;
+        }
+        return codec.isReversible() && acceptLegacy && hmacUserId(userId).equals(hash);
     }
     
     /**
@@ -137,7 +512,10 @@ public class SecurityHashUtil {
             return false;
         }
         String expectedHash = hashUserGroupId(userGroupId);
-        return expectedHash.equals(hash);
+        if (expectedHash.equals(hash)) {
+            return true;
+        }
+        return codec.isReversible() && acceptLegacy && hmacUserGroupId(userGroupId).equals(hash);
     }
     
     /**
@@ -177,25 +555,4 @@ public class SecurityHashUtil {
             return false;
         }
     }
-    
-    /**
-     * Generate HMAC-SHA256 hash for the given data
-     * @param data The data to hash
-     * @return URL-safe Base64 encoded hash (replaces / with -, + with _, removes = padding)
-     */
-    private String generateHmacHash(String data) {
-        try {
-            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(
-                secretKey.getBytes(StandardCharsets.UTF_8), 
-                HMAC_ALGORITHM
-            );
-            mac.init(secretKeySpec);
-            
-            byte[] hashBytes = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(hashBytes);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new RuntimeException("Failed to generate HMAC hash", e);
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,296 @@
+package com.zenmgt.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index for case-insensitive substring search over a few
+ * short text fields per document, with relevance ranking.
+ *
+ * Each document version gets a new ordinal, so posting lists stay sorted and only ever
+ * append; replaced or removed versions are left as tombstones and skipped until the
+ * index compacts itself. A query intersects the posting lists of its trigrams, then
+ * verifies and scores the few surviving candidates.
+ *
+ * Thread-safe; writes take an exclusive lock, searches a shared one.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private Document[] documents = new Document[1024];
+    private int nextOrdinal = 0;
+    private int tombstones = 0;
+
+    /**
+     * Add or replace a document
+     * @param id Document ID
+     * @param fields Searchable field values, most relevant first; nulls are ignored
+     */
+    public void put(long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = fields[i] != null ? normalize(fields[i]) : "";
+            text.append(normalized[i]).append(FIELD_SEPARATOR);
+        }
+        Document document = new Document(id, normalized);
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinalById.get(id);
+            if (previous != null) {
+                if (Arrays.equals(documents[previous].fields, normalized)) {
+                    return;
+                }
+                documents[previous] = null;
+                tombstones++;
+            }
+            int ordinal = nextOrdinal++;
+            if (ordinal == documents.length) {
+                documents = Arrays.copyOf(documents, documents.length * 2);
+            }
+            documents[ordinal] = document;
+            ordinalById.put(id, ordinal);
+            for (long gram : grams(text)) {
+                postings.computeIfAbsent(gram, key -> new IntList()).add(ordinal);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinalById.remove(id);
+            if (previous != null) {
+                documents[previous] = null;
+                tombstones++;
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find documents with a field containing the query, best matches first
+     * @param query Search text, at least 3 characters after trimming
+     * @param maxResults Upper bound on matches
+     * @return Matching IDs ranked by relevance, or null if the query is shorter than a trigram
+     *         or matches more than maxResults documents
+     */
+    public List<Long> search(String query, int maxResults) {
+        String needle = query != null ? normalize(query) : "";
+        if (needle.length() < GRAM) {
+            return null;
+        }
+        long[] queryGrams = grams(needle);
+
+        lock.readLock().lock();
+        try {
+            IntList[] lists = new IntList[queryGrams.length];
+            for (int i = 0; i < queryGrams.length; i++) {
+                lists[i] = postings.get(queryGrams[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            int[] candidates = Arrays.copyOf(lists[0].values, lists[0].size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = intersect(candidates, count, lists[i]);
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Document document = documents[candidates[i]];
+                if (document == null) {
+                    continue;
+                }
+                double score = document.score(needle);
+                if (score > 0) {
+                    if (matches.size() == maxResults) {
+                        return null;
+                    }
+                    matches.add(new Match(document.id, score));
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::score).reversed().thenComparingLong(Match::id));
+
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                ids.add(match.id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinalById.clear();
+            documents = new Document[1024];
+            nextOrdinal = 0;
+            tombstones = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild without tombstones once they make up half the ordinals
+     */
+    private void compactIfNeeded() {
+        if (tombstones < 1024 || tombstones < nextOrdinal / 2) {
+            return;
+        }
+        Document[] live = Arrays.stream(documents, 0, nextOrdinal)
+            .filter(document -> document != null)
+            .toArray(Document[]::new);
+        postings.clear();
+        ordinalById.clear();
+        documents = new Document[Math.max(1024, live.length * 2)];
+        nextOrdinal = 0;
+        tombstones = 0;
+        for (Document document : live) {
+            int ordinal = nextOrdinal++;
+            documents[ordinal] = document;
+            ordinalById.put(document.id, ordinal);
+            for (long gram : grams(document.text())) {
+                postings.computeIfAbsent(gram, key -> new IntList()).add(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Keep the sorted candidates that also appear in the sorted posting list
+     * @return New candidate count
+     */
+    private static int intersect(int[] candidates, int count, IntList list) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int position = Arrays.binarySearch(list.values, from, list.size, candidates[i]);
+            if (position >= 0) {
+                candidates[kept++] = candidates[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= list.size) {
+                break;
+            }
+        }
+        return kept;
+    }
+
+    private static long[] grams(CharSequence text) {
+        long[] grams = new long[Math.max(0, text.length() - GRAM + 1)];
+        int count = 0;
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+                continue;
+            }
+            grams[count++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        return Arrays.stream(grams, 0, count).distinct().toArray();
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Match(long id, double score) {
+    }
+
+    private record Document(long id, String[] fields) {
+
+        String text() {
+            StringBuilder text = new StringBuilder();
+            for (String field : fields) {
+                text.append(field).append(FIELD_SEPARATOR);
+            }
+            return text.toString();
+        }
+
+        /**
+         * Exact match > prefix > word prefix > substring; earlier fields and shorter values weigh more
+         */
+        double score(String needle) {
+            double best = 0;
+            double total = 0;
+            for (int i = 0; i < fields.length; i++) {
+                String field = fields[i];
+                int position = field.indexOf(needle);
+                if (position < 0) {
+                    continue;
+                }
+                double score;
+                if (field.length() == needle.length()) {
+                    score = 100;
+                } else if (position == 0) {
+                    score = 60;
+                } else if (!Character.isLetterOrDigit(field.charAt(position - 1))) {
+                    score = 40;
+                } else {
+                    score = 20;
+                }
+                score *= 1.0 - 0.1 * i;
+                score += 10.0 * needle.length() / field.length();
+                best = Math.max(best, score);
+                total += score;
+            }
+            // Small bonus for matching in more than one field
+            return best + 0.1 * (total - best);
+        }
+    }
+
+    /**
+     * Growable sorted list of ordinals
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+-- Persist the HMAC hashed IDs exposed to the frontend so decoding is an indexed point query.
+-- hashed_id is the hash under the current key version, and prev_hashed_id keeps the hash under
+-- the previous key so both resolve during a key rotation window.
+-- Hashes are base64url, so the columns use a binary collation to keep them case-sensitive.
+-- Every statement checks information_schema first, so a partly applied script can be rerun.
+
+-- auth_user
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user' AND column_name = 'hashed_id') = 0,
+    'ALTER TABLE auth_user
+        ADD COLUMN hashed_id VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NULL COMMENT ''HMAC hashed ID under the current key version'',
+        ADD COLUMN hashed_id_version INT NULL COMMENT ''Key version used for hashed_id'',
+        ADD COLUMN prev_hashed_id VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NULL COMMENT ''HMAC hashed ID under the previous key version''',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user' AND index_name = 'uk_auth_user_hashed_id') = 0,
+    'CREATE UNIQUE INDEX uk_auth_user_hashed_id ON auth_user(hashed_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user' AND index_name = 'uk_auth_user_prev_hashed_id') = 0,
+    'CREATE UNIQUE INDEX uk_auth_user_prev_hashed_id ON auth_user(prev_hashed_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- user_group
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'user_group' AND column_name = 'hashed_id') = 0,
+    'ALTER TABLE user_group
+        ADD COLUMN hashed_id VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NULL COMMENT ''HMAC hashed ID under the current key version'',
+        ADD COLUMN hashed_id_version INT NULL COMMENT ''Key version used for hashed_id'',
+        ADD COLUMN prev_hashed_id VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NULL COMMENT ''HMAC hashed ID under the previous key version''',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'user_group' AND index_name = 'uk_user_group_hashed_id') = 0,
+    'CREATE UNIQUE INDEX uk_user_group_hashed_id ON user_group(hashed_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'user_group' AND index_name = 'uk_user_group_prev_hashed_id') = 0,
+    'CREATE UNIQUE INDEX uk_user_group_prev_hashed_id ON user_group(prev_hashed_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,31 @@
+-- Lower-cased copies of username and email so case-insensitive lookups (login, availability
+-- checks) are index seeks instead of LOWER() over every detail row.
+-- MySQL has no partial indexes, so historical versions are indexed too. Each name has only a
+-- few versions, and queries keep the active one by joining on auth_user's primary key.
+-- Every statement checks information_schema first, so a partly applied script can be rerun.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_detail' AND column_name = 'username_lc') = 0,
+    'ALTER TABLE auth_user_detail
+        ADD COLUMN username_lc VARCHAR(50) GENERATED ALWAYS AS (LOWER(username)) STORED COMMENT ''Lower-cased username for case-insensitive lookups'',
+        ADD COLUMN email_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(email)) STORED COMMENT ''Lower-cased email for case-insensitive lookups''',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_detail' AND index_name = 'idx_auth_user_detail_username_lc') = 0,
+    'CREATE INDEX idx_auth_user_detail_username_lc ON auth_user_detail(username_lc, parent_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_detail' AND index_name = 'idx_auth_user_detail_email_lc') = 0,
+    'CREATE INDEX idx_auth_user_detail_email_lc ON auth_user_detail(email_lc, parent_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
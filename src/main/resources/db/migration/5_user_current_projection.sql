@@ -0,0 +1,74 @@
+-- Flattened read model of each user's current state: the master row, its active detail version
+-- and the latest approval request for that version, so searches and lookups read one table.
+-- Written in the same transaction as every user write (UserProjectionService.refreshUser) and
+-- rebuildable from the source tables with UserProjectionService.rebuild.
+-- Every statement can be rerun if the script stops partway.
+
+CREATE TABLE IF NOT EXISTS auth_user_current (
+    id BIGINT PRIMARY KEY COMMENT 'auth_user.id',
+    user_code VARCHAR(50) NOT NULL,
+    record_status INT NOT NULL,
+    session_key VARCHAR(255),
+    last_login_at TIMESTAMP NULL,
+    active_version BIGINT NOT NULL COMMENT 'auth_user_detail.id of the active version',
+    username VARCHAR(50) NOT NULL,
+    username_lc VARCHAR(50) GENERATED ALWAYS AS (LOWER(username)) STORED,
+    email VARCHAR(255) NOT NULL,
+    email_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(email)) STORED,
+    session_validity BIGINT,
+    approval_status INT NULL COMMENT 'Status of the latest approval request for the active version',
+    approval_request_id BIGINT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NULL,
+    created_by BIGINT NOT NULL,
+    updated_by BIGINT,
+    CONSTRAINT uk_auth_user_current_user_code UNIQUE (user_code)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Lookups and availability checks are answered from the index alone
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_current' AND index_name = 'idx_auth_user_current_username_lc') = 0,
+    'CREATE INDEX idx_auth_user_current_username_lc ON auth_user_current(username_lc, record_status)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_current' AND index_name = 'idx_auth_user_current_email_lc') = 0,
+    'CREATE INDEX idx_auth_user_current_email_lc ON auth_user_current(email_lc, record_status)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Default search order (created_at, id), with and without a status filter
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_current' AND index_name = 'idx_auth_user_current_created') = 0,
+    'CREATE INDEX idx_auth_user_current_created ON auth_user_current(created_at, id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'auth_user_current' AND index_name = 'idx_auth_user_current_status_created') = 0,
+    'CREATE INDEX idx_auth_user_current_status_created ON auth_user_current(record_status, created_at, id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+INSERT INTO auth_user_current (id, user_code, record_status, session_key, last_login_at, active_version,
+    username, email, session_validity, approval_status, approval_request_id,
+    created_at, updated_at, created_by, updated_by)
+SELECT u.id, u.user_code, u.record_status, u.session_key, u.last_login_at, u.active_version,
+    d.username, d.email, d.session_validity, sar.request_status, sar.id,
+    u.created_at, u.updated_at, u.created_by, u.updated_by
+FROM auth_user u
+JOIN auth_user_detail d ON u.active_version = d.id
+LEFT JOIN sys_approval_request sar ON sar.id = (
+    SELECT MAX(latest.id) FROM sys_approval_request latest
+    WHERE latest.reference_type = 100 AND latest.reference_id = u.id
+        AND latest.reference_version_id = u.active_version)
+ON DUPLICATE KEY UPDATE id = auth_user_current.id;
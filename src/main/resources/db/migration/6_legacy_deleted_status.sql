@@ -0,0 +1,29 @@
+-- Deletes used to set record_status 3 (Pending Amendment Approval) instead of 5 (Deleted).
+-- A legacy delete is recognised by what deleteUser wrote: a new active detail version that is an
+-- unchanged copy of the previous one, with no open approval request for it. A real amendment
+-- changes the detail or is backed by a pending sys_approval_request (request_status 0-3).
+-- Status 3 rows that do not match are left alone. Review them by hand with:
+--   SELECT id, user_code, active_version, updated_at, updated_by FROM auth_user WHERE record_status = 3
+-- Both statements can be rerun.
+
+UPDATE auth_user u
+JOIN auth_user_detail active ON active.id = u.active_version
+JOIN auth_user_detail prev ON prev.id = (
+    SELECT MAX(p.id) FROM auth_user_detail p
+    WHERE p.parent_id = u.id AND p.id < u.active_version)
+SET u.record_status = 5
+WHERE u.record_status = 3
+    AND active.username = prev.username
+    AND active.email = prev.email
+    AND active.session_validity <=> prev.session_validity
+    AND NOT EXISTS (
+        SELECT 1 FROM sys_approval_request sar
+        WHERE sar.reference_type = 100 AND sar.reference_id = u.id
+            AND sar.reference_version_id = u.active_version
+            AND sar.request_status IN (0, 1, 2, 3));
+
+-- Keep the read model in step
+UPDATE auth_user_current c
+JOIN auth_user u ON u.id = c.id
+SET c.record_status = u.record_status
+WHERE c.record_status != u.record_status;
@@ -0,0 +1,30 @@
+package com.zenmgt.enums;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchMatchModeTest {
+
+    @Test
+    void testPatternPerMode() {
+        assertEquals("%ali%", UserSearchMatchMode.CONTAINS.pattern("ali"));
+        assertEquals("ali%", UserSearchMatchMode.PREFIX.pattern("ali"));
+        assertEquals("ali", UserSearchMatchMode.EXACT.pattern("ali"));
+        assertNull(UserSearchMatchMode.PREFIX.pattern(null));
+    }
+
+    @Test
+    void testLikeWildcardsAreEscaped() {
+        assertEquals("100\\%\\_off\\\\%", UserSearchMatchMode.PREFIX.pattern("100%_off\\"));
+        // Equality has no wildcards to escape
+        assertEquals("100%_off", UserSearchMatchMode.EXACT.pattern("100%_off"));
+    }
+
+    @Test
+    void testUnknownParamFallsBackToContains() {
+        assertEquals(UserSearchMatchMode.PREFIX, UserSearchMatchMode.fromParam("Prefix"));
+        assertEquals(UserSearchMatchMode.CONTAINS, UserSearchMatchMode.fromParam("fuzzy"));
+        assertEquals(UserSearchMatchMode.CONTAINS, UserSearchMatchMode.fromParam(null));
+    }
+}
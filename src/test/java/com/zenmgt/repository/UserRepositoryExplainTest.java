@@ -0,0 +1,171 @@
+package com.zenmgt.repository;
+
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.enums.UserSearchMatchMode;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * EXPLAINs the case-insensitive lookup queries and the search field filters exactly as declared on
+ * UserRepository and checks that they seek the indexes of the auth_user_current projection.
+ * Runs against a local MySQL with the application schema migrated (jdbc:mysql://localhost:3306/zen_mgt,
+ * overridable with ZENMGT_TEST_DB_URL, ZENMGT_TEST_DB_USER and ZENMGT_TEST_DB_PASSWORD);
+ * skipped when none is reachable.
+ */
+class UserRepositoryExplainTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = env("ZENMGT_TEST_DB_URL", "jdbc:mysql://localhost:3306/zen_mgt?useSSL=false&allowPublicKeyRetrieval=true");
+        try {
+            connection = DriverManager.getConnection(url,
+                env("ZENMGT_TEST_DB_USER", "zenadmin"), env("ZENMGT_TEST_DB_PASSWORD", "zenadmin123"));
+        } catch (Exception e) {
+            connection = null;
+        }
+        assumeTrue(connection != null, "No local MySQL at " + url);
+
+        try (ResultSet tables = connection.getMetaData().getTables(null, null, "auth_user_current", null)) {
+            assumeTrue(tables.next(), "5_user_current_projection.sql has not been applied");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "findByUsername, idx_auth_user_current_username_lc",
+        "existsByUsername, idx_auth_user_current_username_lc",
+        "findByEmail, idx_auth_user_current_email_lc",
+        "existsByEmail, idx_auth_user_current_email_lc"
+    })
+    void testLookupSeeksLowerCasedIndex(String method, String expectedIndex) throws Exception {
+        String sql = UserRepository.class.getMethod(method, String.class).getAnnotation(Select.class).value()[0]
+            .replaceAll("#\\{\\w+}", "?");
+
+        boolean projectionUsesIndex = false;
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            explain.setString(1, "Someone@Example.com");
+            try (ResultSet plan = explain.executeQuery()) {
+                while (plan.next()) {
+                    String table = plan.getString("table");
+                    String type = plan.getString("type");
+                    if ("c".equals(table)) {
+                        assertEquals(expectedIndex, plan.getString("key"), method + " plan for c");
+                        projectionUsesIndex = true;
+                    } else if ("u".equals(table)) {
+                        // At most one primary key probe for the matching user, never a scan
+                        assertTrue("eq_ref".equals(type) || "const".equals(type), method + " access type for u: " + type);
+                    }
+                }
+            }
+        }
+        assertTrue(projectionUsesIndex, method + " plan has no row for auth_user_current");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "userCode, exact, false, uk_auth_user_current_user_code",
+        "userCode, prefix, true, uk_auth_user_current_user_code",
+        "username, exact, false, idx_auth_user_current_username_lc",
+        "username, exact, true, idx_auth_user_current_username_lc",
+        "username, prefix, false, idx_auth_user_current_username_lc",
+        "email, exact, true, idx_auth_user_current_email_lc",
+        "email, prefix, false, idx_auth_user_current_email_lc",
+        "username, contains, false, ",
+        "email, contains, true, "
+    })
+    void testSearchFieldFilterPlan(String field, String mode, boolean caseSensitive, String expectedIndex) throws Exception {
+        UserSearchCriteria criteria = UserSearchCriteria.builder()
+            .matchMode(UserSearchMatchMode.fromParam(mode))
+            .caseSensitive(caseSensitive)
+            .build();
+        switch (field) {
+            case "userCode" -> criteria.setUserCode("USR0001");
+            case "username" -> criteria.setUsername("Someone");
+            default -> criteria.setEmail("Someone@Example.com");
+        }
+
+        try (ResultSet plan = explainSearch(criteria)) {
+            assertTrue(plan.next(), "no plan row");
+            String type = plan.getString("type");
+            if (expectedIndex == null) {
+                // A leading wildcard cannot seek; the filter scans the table or an index
+                assertTrue(Set.of("ALL", "index").contains(type), field + " " + mode + " access type: " + type);
+            } else {
+                assertEquals(expectedIndex, plan.getString("key"), field + " " + mode + " key");
+                assertTrue(Set.of("const", "ref", "range").contains(type), field + " " + mode + " access type: " + type);
+            }
+        }
+    }
+
+    @Test
+    void testStatusListFilterRangeScansStatusIndex() throws Exception {
+        UserSearchCriteria criteria = UserSearchCriteria.builder()
+            .recordStatuses(List.of(RecordStatus.PENDING_CREATE_APPROVAL, RecordStatus.PENDING_DELETE_APPROVAL))
+            .build();
+
+        try (ResultSet plan = explainSearch(criteria)) {
+            assertTrue(plan.next(), "no plan row");
+            assertEquals("idx_auth_user_current_status_created", plan.getString("key"));
+            assertEquals("range", plan.getString("type"));
+        }
+    }
+
+    /**
+     * Render the search filters through MyBatis, as the mapper would, and EXPLAIN them
+     */
+    private ResultSet explainSearch(UserSearchCriteria criteria) throws Exception {
+        String script = UserRepository.class.getMethod("findUserIdsMatching", UserSearchCriteria.class, Integer.class)
+            .getAnnotation(Select.class).value()[0];
+        Configuration configuration = new Configuration();
+        MapperMethod.ParamMap<Object> params = new MapperMethod.ParamMap<>();
+        params.put("q", criteria);
+        params.put("recordStatus", null);
+        BoundSql boundSql = new XMLLanguageDriver().createSqlSource(configuration, script, Object.class).getBoundSql(params);
+
+        MetaObject values = configuration.newMetaObject(params);
+        PreparedStatement explain = connection.prepareStatement("EXPLAIN " + boundSql.getSql());
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        for (int i = 0; i < mappings.size(); i++) {
+            String property = mappings.get(i).getProperty();
+            explain.setObject(i + 1, boundSql.hasAdditionalParameter(property)
+                ? boundSql.getAdditionalParameter(property) : values.getValue(property));
+        }
+        explain.closeOnCompletion();
+        return explain.executeQuery();
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,49 @@
+package com.zenmgt.security;
+
+import com.zenmgt.model.AuthUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticatedPrincipalCacheTest {
+
+    @Test
+    void testInvalidateUserEvictsOnlyThatUser() {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(
+            new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("alice", code -> { loads.incrementAndGet(); return Optional.of(user(1L, code)); });
+        cache.get("bob", code -> { loads.incrementAndGet(); return Optional.of(user(2L, code)); });
+        assertEquals(2, loads.get());
+
+        cache.invalidateUser(1L);
+
+        cache.get("alice", code -> { loads.incrementAndGet(); return Optional.of(user(1L, code)); });
+        cache.get("bob", code -> { loads.incrementAndGet(); return Optional.of(user(2L, code)); });
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testMissesAreNotCached() {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(
+            new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.get("ghost", code -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertTrue(cache.get("ghost", code -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    private static AuthUser user(Long id, String userCode) {
+        AuthUser user = new AuthUser();
+        user.setId(id);
+        user.setUserCode(userCode);
+        return user;
+    }
+}
@@ -0,0 +1,109 @@
+package com.zenmgt.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlacklistJournalTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplaySkipsExpiredEntries() throws Exception {
+        Path file = tempDir.resolve("blacklist.journal");
+        try (BlacklistJournal journal = new BlacklistJournal(file, 4096, visitor -> { })) {
+            assertEquals(0, journal.open(new Collector(), NOW));
+            journal.appendToken(TokenDigest.of("live"), NOW + 60_000);
+            journal.appendToken(TokenDigest.of("expired"), NOW - 1);
+            journal.appendEpoch("USER_001", NOW, NOW + 60_000);
+        }
+
+        Collector replayed = new Collector();
+        try (BlacklistJournal journal = new BlacklistJournal(file, 4096, visitor -> { })) {
+            assertEquals(2, journal.open(replayed, NOW));
+        }
+        assertEquals(Map.of(TokenDigest.of("live"), NOW + 60_000), replayed.tokens);
+        assertEquals(Map.of("USER_001", NOW), replayed.epochs);
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws Exception {
+        Path file = tempDir.resolve("blacklist.journal");
+        try (BlacklistJournal journal = new BlacklistJournal(file, 4096, visitor -> { })) {
+            journal.open(new Collector(), NOW);
+            journal.appendToken(TokenDigest.of("first"), NOW + 60_000);
+            journal.appendToken(TokenDigest.of("second"), NOW + 60_000);
+        }
+        // Corrupt the last byte of the second record's CRC
+        int secondCrcEnd = 8 + 2 * (1 + 2 + 24 + 4);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(secondCrcEnd - 1);
+            int last = raf.read();
+            // read() advanced the pointer; go back to overwrite the same byte
+            raf.seek(secondCrcEnd - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        Collector replayed = new Collector();
+        try (BlacklistJournal journal = new BlacklistJournal(file, 4096, visitor -> { })) {
+            assertEquals(1, journal.open(replayed, NOW));
+            journal.appendToken(TokenDigest.of("third"), NOW + 60_000);
+        }
+        assertTrue(replayed.tokens.containsKey(TokenDigest.of("first")));
+
+        Collector afterAppend = new Collector();
+        try (BlacklistJournal journal = new BlacklistJournal(file, 4096, visitor -> { })) {
+            assertEquals(2, journal.open(afterAppend, NOW));
+        }
+        assertTrue(afterAppend.tokens.containsKey(TokenDigest.of("third")));
+    }
+
+    @Test
+    void testFullJournalCompactsToLiveEntries() throws Exception {
+        Path file = tempDir.resolve("blacklist.journal");
+        Map<TokenDigest, Long> live = new java.util.concurrent.ConcurrentHashMap<>();
+        try (BlacklistJournal journal = new BlacklistJournal(file, 1024,
+                visitor -> live.forEach(visitor::onToken))) {
+            journal.open(new Collector(), NOW);
+            // Far more appends than fit in 1 KiB; only the last few stay live
+            for (int i = 0; i < 500; i++) {
+                TokenDigest digest = TokenDigest.of("token-" + i);
+                if (i >= 495) {
+                    live.put(digest, NOW + 60_000);
+                }
+                journal.appendToken(digest, NOW + 60_000);
+            }
+        }
+
+        Collector replayed = new Collector();
+        try (BlacklistJournal journal = new BlacklistJournal(file, 1024, visitor -> { })) {
+            journal.open(replayed, NOW);
+        }
+        assertTrue(replayed.tokens.keySet().containsAll(live.keySet()));
+        assertTrue(replayed.tokens.size() < 500);
+    }
+
+    private static class Collector implements BlacklistJournal.EntryVisitor {
+        final Map<TokenDigest, Long> tokens = new HashMap<>();
+        final Map<String, Long> epochs = new HashMap<>();
+
+        @Override
+        public void onToken(TokenDigest digest, long expiresAtMillis) {
+            tokens.put(digest, expiresAtMillis);
+        }
+
+        @Override
+        public void onEpoch(String userCode, long epochMillis, long expiresAtMillis) {
+            epochs.put(userCode, epochMillis);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.zenmgt.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringDigestSetTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void testContainsUntilExpiry() {
+        ExpiringDigestSet set = new ExpiringDigestSet();
+        TokenDigest digest = TokenDigest.of("token-a");
+        set.add(digest, NOW + 1000);
+
+        assertTrue(set.contains(digest, NOW));
+        assertFalse(set.contains(digest, NOW + 1000));
+        assertFalse(set.contains(TokenDigest.of("token-b"), NOW));
+    }
+
+    @Test
+    void testExpireDrainsOnlyDueBuckets() {
+        ExpiringDigestSet set = new ExpiringDigestSet();
+        for (int i = 0; i < 100; i++) {
+            set.add(TokenDigest.of("short-" + i), NOW + 30_000);
+            set.add(TokenDigest.of("long-" + i), NOW + 3_600_000);
+        }
+
+        assertEquals(0, set.expire(NOW));
+        assertEquals(100, set.expire(NOW + 2 * ExpiringDigestSet.BUCKET_MILLIS));
+        assertEquals(100, set.size());
+        assertEquals(100, set.expire(NOW + 3_600_000 + ExpiringDigestSet.BUCKET_MILLIS));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void testReAddWithLaterExpirySurvivesEarlierBucket() {
+        ExpiringDigestSet set = new ExpiringDigestSet();
+        TokenDigest digest = TokenDigest.of("token-a");
+        set.add(digest, NOW + 1000);
+        set.add(digest, NOW + 3_600_000);
+
+        assertEquals(0, set.expire(NOW + 2 * ExpiringDigestSet.BUCKET_MILLIS));
+        assertTrue(set.contains(digest, NOW + 2 * ExpiringDigestSet.BUCKET_MILLIS));
+    }
+}
@@ -0,0 +1,35 @@
+package com.zenmgt.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsedTokenTest {
+
+    private static final long REVOKED_AT = 1_700_000_000_500L;
+
+    @Test
+    void testTokenIssuedLaterInTheRevocationSecondSurvives() {
+        Claims claims = Jwts.claims().setSubject("USER_001").setIssuedAt(new Date(REVOKED_AT / 1000 * 1000));
+        claims.put(ParsedToken.CLAIM_ISSUED_AT_MILLIS, REVOKED_AT + 1);
+
+        ParsedToken token = ParsedToken.from(claims, TokenDigest.of("token"));
+
+        assertFalse(token.isIssuedNotAfter(REVOKED_AT));
+        assertTrue(token.isIssuedNotAfter(REVOKED_AT + 1));
+    }
+
+    @Test
+    void testLegacyTokenFallsBackToIat() {
+        Claims claims = Jwts.claims().setSubject("USER_001").setIssuedAt(new Date(REVOKED_AT / 1000 * 1000));
+
+        ParsedToken token = ParsedToken.from(claims, TokenDigest.of("token"));
+
+        assertTrue(token.isIssuedNotAfter(REVOKED_AT));
+        assertTrue(ParsedToken.from(Jwts.claims(), TokenDigest.of("token")).isIssuedNotAfter(REVOKED_AT));
+    }
+}
@@ -0,0 +1,71 @@
+package com.zenmgt.security;
+
+import com.zenmgt.config.SecurityPathProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicPathMatcherTest {
+
+    private final PublicPathMatcher matcher = new PublicPathMatcher(properties());
+
+    private static SecurityPathProperties properties() {
+        SecurityPathProperties properties = new SecurityPathProperties();
+        properties.setPublicPaths(List.of(
+            "/mgt/v1/auth/login",
+            "/mgt/v1/users/*/test-reset-password",
+            "/health",
+            "/docs/v*.html"
+        ));
+        properties.setMfaPublicPaths(List.of(
+            "/mgt/v1/mfa/setup/init",
+            "/mgt/v1/mfa/setup/init/**"
+        ));
+        return properties;
+    }
+
+    @Test
+    void testLiteralAndWildcardSegments() {
+        assertTrue(matcher.matches("/mgt/v1/auth/login"));
+        assertTrue(matcher.matches("/health"));
+        assertTrue(matcher.matches("/mgt/v1/users/abc123/test-reset-password"));
+
+        assertFalse(matcher.matches("/mgt/v1/auth/logout"));
+        assertFalse(matcher.matches("/mgt/v1/users/test-reset-password"));
+        assertFalse(matcher.matches("/mgt/v1/users/a/b/test-reset-password"));
+        assertFalse(matcher.matches("/health/"));
+    }
+
+    @Test
+    void testTrailingDoubleWildcard() {
+        assertTrue(matcher.matches("/mgt/v1/mfa/setup/init"));
+        assertTrue(matcher.matches("/mgt/v1/mfa/setup/init/"));
+        assertTrue(matcher.matches("/mgt/v1/mfa/setup/init/abc/def"));
+        assertFalse(matcher.matches("/mgt/v1/mfa/setup/verify"));
+    }
+
+    @Test
+    void testFallbackPatterns() {
+        assertTrue(matcher.matches("/docs/v1.html"));
+        assertFalse(matcher.matches("/docs/index.html"));
+    }
+
+    @Test
+    void testRequestStripsContextPathAndMemoizesPerPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/health");
+        request.setContextPath("/app");
+
+        assertTrue(matcher.isPublic(request));
+        assertTrue(matcher.isPublic(request));
+        // A forward or error dispatch to another path is not answered from the memo
+        request.setRequestURI("/app/mgt/v1/users");
+        assertFalse(matcher.isPublic(request));
+        request.setRequestURI("/app/health");
+        assertTrue(matcher.isPublic(request));
+
+        assertFalse(matcher.isPublic(new MockHttpServletRequest("GET", "/mgt/v1/users")));
+    }
+}
@@ -0,0 +1,120 @@
+package com.zenmgt.service;
+
+import com.zenmgt.security.ParsedToken;
+import com.zenmgt.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in JwtAuthenticationFilter, before and after parse-once.
+ *
+ * Before: extractUsername, extractHashedUserId, extractHashedUserGroupId and isTokenValid
+ * (username, hashed user ID, expiration) each built a parser and key and re-verified the token.
+ * After: a single parseToken call against the prebuilt parser, first with the verified-token
+ * cache disabled (size 0) and then with a warm cache as seen by repeat SPA requests.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.zenmgt.service.JwtServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET_KEY = "test-secret-key-for-hashing-and-jwt-operations";
+
+    private JwtServiceImpl jwtService;
+    private JwtServiceImpl cachingJwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService(0);
+        cachingJwtService = newJwtService(1000);
+
+        token = Jwts.builder()
+            .setClaims(Map.of(
+                ParsedToken.CLAIM_HASHED_USER_ID, "Gl0pgL3kIDHdN9Jw8FzbO4bsN7kDHQv3WAlxvBvvS0E",
+                ParsedToken.CLAIM_HASHED_USER_GROUP_ID, "k3n1Q2sTJ6JwZf9pWm0aV4cRe8YbLhXu5dNoPiCgEtA"))
+            .setSubject("USER_ACTIVE_001")
+            .setIssuedAt(new Date())
+            .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+            .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+            .compact();
+    }
+
+    @Benchmark
+    public void legacyParsePerClaim(Blackhole blackhole) {
+        blackhole.consume(legacyClaims().getSubject());
+        blackhole.consume(legacyClaims().get(ParsedToken.CLAIM_HASHED_USER_ID, String.class));
+        blackhole.consume(legacyClaims().get(ParsedToken.CLAIM_HASHED_USER_GROUP_ID, String.class));
+        // isTokenValid: username, hashed user ID, expiration
+        blackhole.consume(legacyClaims().getSubject());
+        blackhole.consume(legacyClaims().get(ParsedToken.CLAIM_HASHED_USER_ID, String.class));
+        blackhole.consume(legacyClaims().getExpiration());
+    }
+
+    @Benchmark
+    public void parseOnce(Blackhole blackhole) {
+        consume(jwtService.parseToken(token), blackhole);
+    }
+
+    @Benchmark
+    public void parseOnceCached(Blackhole blackhole) {
+        consume(cachingJwtService.parseToken(token), blackhole);
+    }
+
+    private static void consume(ParsedToken parsed, Blackhole blackhole) {
+        blackhole.consume(parsed.getSubject());
+        blackhole.consume(parsed.getHashedUserId());
+        blackhole.consume(parsed.getHashedUserGroupId());
+        blackhole.consume(parsed.isExpired());
+    }
+
+    private static JwtServiceImpl newJwtService(long verifiedCacheSize) {
+        JwtServiceImpl service = new JwtServiceImpl();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(service, "verifiedTokenCache",
+            new VerifiedTokenCache(new SimpleMeterRegistry(), verifiedCacheSize));
+        service.init();
+        return service;
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtServiceBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
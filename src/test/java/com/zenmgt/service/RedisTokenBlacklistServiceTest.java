@@ -0,0 +1,233 @@
+package com.zenmgt.service;
+
+import com.zenmgt.security.ParsedToken;
+import com.zenmgt.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisTokenBlacklistServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private JwtService jwtService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> cursor());
+        jwtService = mock(JwtService.class);
+    }
+
+    @Test
+    void testBloomMissIsAnsweredLocally() {
+        RedisTokenBlacklistService service = newService(redisTemplate, jwtService);
+
+        assertFalse(service.isTokenRevoked(token("USER_001", System.currentTimeMillis())));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void testBloomHitIsConfirmedAgainstRedis() {
+        RedisTokenBlacklistService service = newService(redisTemplate, jwtService);
+        ParsedToken revoked = token("USER_001", System.currentTimeMillis());
+        ParsedToken falsePositive = token("USER_001", System.currentTimeMillis());
+        service.onMessage(message("T:" + revoked.getTokenId()), null);
+        service.onMessage(message("T:" + falsePositive.getTokenId()), null);
+        when(redisTemplate.hasKey(RedisTokenBlacklistService.TOKEN_KEY_PREFIX + revoked.getTokenId())).thenReturn(true);
+        when(redisTemplate.hasKey(RedisTokenBlacklistService.TOKEN_KEY_PREFIX + falsePositive.getTokenId())).thenReturn(false);
+
+        assertTrue(service.isTokenRevoked(revoked));
+        assertFalse(service.isTokenRevoked(falsePositive));
+    }
+
+    @Test
+    void testRevocationFailsClosedWhenRedisIsDown() {
+        ParsedToken token = token("USER_001", System.currentTimeMillis());
+        when(jwtService.parseToken("raw")).thenReturn(token);
+        doThrow(new RedisConnectionFailureException("down"))
+            .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        RedisTokenBlacklistService service = newService(redisTemplate, jwtService);
+
+        service.blacklistToken("raw");
+
+        assertTrue(service.isTokenRevoked(token));
+        assertFalse(service.isTokenRevoked(token("USER_001", System.currentTimeMillis())));
+    }
+
+    @Test
+    void testEpochEventRevokesOlderTokensOnly() {
+        RedisTokenBlacklistService service = newService(redisTemplate, jwtService);
+        long epochMillis = System.currentTimeMillis();
+
+        service.onMessage(message("E:" + epochMillis + ":USER_001"), null);
+
+        assertTrue(service.isTokenRevoked(token("USER_001", epochMillis)));
+        assertFalse(service.isTokenRevoked(token("USER_001", epochMillis + 1)));
+        assertFalse(service.isTokenRevoked(token("USER_002", epochMillis - 1)));
+    }
+
+    @Test
+    void testEpochsAreLoadedFromRedisOnRebuild() {
+        long epochMillis = System.currentTimeMillis();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+            ScanOptions options = invocation.getArgument(0);
+            return options.getPattern().startsWith(RedisTokenBlacklistService.EPOCH_KEY_PREFIX)
+                ? cursor(RedisTokenBlacklistService.EPOCH_KEY_PREFIX + "USER_001")
+                : cursor(RedisTokenBlacklistService.TOKEN_KEY_PREFIX + "revoked-jti");
+        });
+        when(valueOperations.get(RedisTokenBlacklistService.EPOCH_KEY_PREFIX + "USER_001"))
+            .thenReturn(Long.toString(epochMillis));
+        when(redisTemplate.hasKey(RedisTokenBlacklistService.TOKEN_KEY_PREFIX + "revoked-jti")).thenReturn(true);
+
+        RedisTokenBlacklistService service = newService(redisTemplate, jwtService);
+
+        assertTrue(service.isTokenRevoked(token("USER_001", epochMillis)));
+        assertFalse(service.isTokenRevoked(token("USER_001", epochMillis + 1)));
+        assertTrue(service.isTokenRevoked(ParsedToken.builder()
+            .tokenId("revoked-jti").subject("USER_002").issuedAtMillis(epochMillis).build()));
+    }
+
+    @Test
+    void testRevokeAllTokensPublishesEpoch() {
+        RedisTokenBlacklistService service = newService(redisTemplate, jwtService);
+
+        service.revokeAllTokensForUser("USER_001");
+
+        verify(valueOperations).set(eq(RedisTokenBlacklistService.EPOCH_KEY_PREFIX + "USER_001"), anyString(),
+            eq(Duration.ofDays(7)));
+        verify(redisTemplate).convertAndSend(eq(RedisTokenBlacklistService.EVENTS_CHANNEL), anyString());
+    }
+
+    /**
+     * Runs against a local Redis (localhost:6379, e.g. docker run -p 6379:6379 redis);
+     * skipped when none is reachable.
+     */
+    @Nested
+    class LocalRedis {
+
+        private LettuceConnectionFactory connectionFactory;
+        private StringRedisTemplate liveTemplate;
+
+        @BeforeEach
+        void setUp() {
+            connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+            connectionFactory.afterPropertiesSet();
+            boolean available;
+            try {
+                connectionFactory.getConnection().ping();
+                available = true;
+            } catch (Exception e) {
+                available = false;
+            }
+            assumeTrue(available, "No local Redis on localhost:6379");
+
+            liveTemplate = new StringRedisTemplate(connectionFactory);
+        }
+
+        @AfterEach
+        void tearDown() {
+            connectionFactory.destroy();
+        }
+
+        @Test
+        void testRevokedTokenSharedAcrossInstances() {
+            ParsedToken token = token("USER_REDIS_001", System.currentTimeMillis());
+            when(jwtService.parseToken("raw")).thenReturn(token);
+
+            RedisTokenBlacklistService first = newService(liveTemplate, jwtService);
+            RedisTokenBlacklistService second = newService(liveTemplate, jwtService);
+            assertFalse(second.isTokenRevoked(token));
+
+            first.blacklistToken("raw");
+            assertTrue(first.isTokenRevoked(token));
+            assertTrue(liveTemplate.hasKey(RedisTokenBlacklistService.TOKEN_KEY_PREFIX + token.getTokenId()));
+            long ttl = liveTemplate.getExpire(RedisTokenBlacklistService.TOKEN_KEY_PREFIX + token.getTokenId());
+            assertTrue(ttl > 0 && ttl <= TimeUnit.HOURS.toSeconds(1));
+
+            // Without pub/sub wiring the second instance learns of it on rebuild
+            second.rebuildLocalState();
+            assertTrue(second.isTokenRevoked(token));
+            assertFalse(second.isTokenRevoked(token("USER_REDIS_001", System.currentTimeMillis())));
+        }
+
+        @Test
+        void testRevocationEpochSharedAcrossInstances() {
+            String userCode = "USER_REDIS_" + UUID.randomUUID();
+            ParsedToken oldToken = token(userCode, System.currentTimeMillis() - 60_000);
+
+            RedisTokenBlacklistService first = newService(liveTemplate, jwtService);
+            first.revokeAllTokensForUser(userCode);
+            assertTrue(first.isTokenRevoked(oldToken));
+
+            RedisTokenBlacklistService second = newService(liveTemplate, jwtService);
+            assertTrue(second.isTokenRevoked(oldToken));
+            assertFalse(second.isTokenRevoked(token(userCode, System.currentTimeMillis() + 2_000)));
+
+            liveTemplate.delete(RedisTokenBlacklistService.EPOCH_KEY_PREFIX + userCode);
+        }
+    }
+
+    private static RedisTokenBlacklistService newService(StringRedisTemplate template, JwtService jwtService) {
+        RedisTokenBlacklistService service = new RedisTokenBlacklistService(template, jwtService,
+            new VerifiedTokenCache(new SimpleMeterRegistry(), 100), TimeUnit.DAYS.toMillis(7), 1000, 0.001);
+        service.init();
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(String... keys) {
+        Iterator<String> iterator = List.of(keys).iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RedisTokenBlacklistService.EVENTS_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ParsedToken token(String subject, long issuedAtMillis) {
+        return ParsedToken.builder()
+            .tokenId(UUID.randomUUID().toString())
+            .subject(subject)
+            .issuedAt(new Date(issuedAtMillis))
+            .issuedAtMillis(issuedAtMillis)
+            .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+            .build();
+    }
+}
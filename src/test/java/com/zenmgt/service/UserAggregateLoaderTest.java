@@ -0,0 +1,62 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserAggregateDTO;
+import com.zenmgt.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserAggregateLoaderTest {
+
+    @Test
+    void testLoadsDistinctIdsInRequestOrder() {
+        UserRepository userRepository = mock(UserRepository.class);
+        // The database returns rows in its own order
+        when(userRepository.findUsersWithDetailByIds(List.of(3L, 1L, 2L)))
+            .thenReturn(List.of(user(1L), user(3L)));
+
+        Map<Long, UserAggregateDTO> loaded = new UserAggregateLoader(userRepository)
+            .loadByIds(Arrays.asList(3L, 1L, null, 3L, 2L));
+
+        assertEquals(List.of(3L, 1L), new ArrayList<>(loaded.keySet()));
+        verify(userRepository, times(1)).findUsersWithDetailByIds(anyCollection());
+    }
+
+    @Test
+    void testSplitsLargeRequestsIntoBoundedQueries() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUsersWithDetailByIds(anyCollection())).thenReturn(List.of());
+        List<Long> ids = LongStream.rangeClosed(1, UserAggregateLoader.MAX_IDS_PER_QUERY + 1).boxed().toList();
+
+        new UserAggregateLoader(userRepository).loadByIds(ids);
+
+        verify(userRepository, times(2)).findUsersWithDetailByIds(anyCollection());
+    }
+
+    @Test
+    void testGroupIdListIsParsed() {
+        UserAggregateDTO user = new UserAggregateDTO();
+        user.setGroupIdList("1002000000000001,1002000000000007");
+        assertEquals(List.of(1002000000000001L, 1002000000000007L), user.getGroupIds());
+
+        user.setGroupIdList(null);
+        assertEquals(List.of(), user.getGroupIds());
+    }
+
+    private static UserAggregateDTO user(long id) {
+        UserAggregateDTO user = new UserAggregateDTO();
+        user.setId(id);
+        return user;
+    }
+}
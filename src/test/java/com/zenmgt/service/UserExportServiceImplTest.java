@@ -0,0 +1,28 @@
+package com.zenmgt.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExportServiceImplTest {
+
+    @Test
+    void testPlainFieldIsUnchanged() {
+        assertEquals("alice@example.com", UserExportServiceImpl.csvField("alice@example.com"));
+    }
+
+    @Test
+    void testFieldWithSeparatorOrQuoteIsQuoted() {
+        assertEquals("\"Smith, John\"", UserExportServiceImpl.csvField("Smith, John"));
+        assertEquals("\"say \"\"hi\"\"\"", UserExportServiceImpl.csvField("say \"hi\""));
+        assertEquals("\"two\nlines\"", UserExportServiceImpl.csvField("two\nlines"));
+    }
+
+    @Test
+    void testFormulaPrefixIsNeutralized() {
+        assertEquals("'=1+1", UserExportServiceImpl.csvField("=1+1"));
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", UserExportServiceImpl.csvField("=HYPERLINK(\"x\")"));
+        assertEquals("'@user", UserExportServiceImpl.csvField("@user"));
+        assertEquals("'+60123", UserExportServiceImpl.csvField("+60123"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.zenmgt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenmgt.dto.UserDTO;
+import com.zenmgt.dto.UserImportResultDTO;
+import com.zenmgt.enums.ErrorCodes;
+import com.zenmgt.enums.UserExportFormat;
+import com.zenmgt.repository.UserRepository;
+import com.zenmgt.util.SecurityHashUtil;
+import com.zenmgt.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceImplTest {
+
+    @Test
+    void testCsvRecordsWithQuotesAndLineBreaks() throws Exception {
+        UserImportServiceImpl.CsvRecordReader reader = new UserImportServiceImpl.CsvRecordReader(
+            new BufferedReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\"\n\"two\nlines\",x\nlast")));
+
+        assertEquals(List.of("a", "b,c", "say \"hi\""), reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("two\nlines", "x"), reader.next());
+        assertEquals(2, reader.getRecordLine());
+        assertEquals(List.of("last"), reader.next());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testUnterminatedQuoteIsFlagged() throws Exception {
+        UserImportServiceImpl.CsvRecordReader reader = new UserImportServiceImpl.CsvRecordReader(
+            new BufferedReader(new StringReader("\"open,field\nrest")));
+
+        assertNotNull(reader.next());
+        assertTrue(reader.isUnterminated());
+    }
+
+    @Test
+    void testGeneratedUserCodesFitTheColumn() {
+        assertEquals("johndoe", UserImportServiceImpl.userCodeBase("John.Doe"));
+        assertEquals("user", UserImportServiceImpl.userCodeBase("..."));
+
+        String suffixed = UserImportServiceImpl.suffixedUserCode("a".repeat(50), Long.MAX_VALUE);
+        assertEquals(UserImportServiceImpl.MAX_USER_CODE_LENGTH, suffixed.length());
+        assertTrue(suffixed.endsWith("_" + Long.toString(Long.MAX_VALUE, 36)));
+    }
+
+    @Test
+    void testRejectedRowsAreReportedAndTheRestInserted() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserDTO takenEmail = new UserDTO();
+        takenEmail.setEmail("bob@example.com");
+        when(userRepository.findTakenIdentifiers(any(), any(), any())).thenReturn(List.of(takenEmail));
+
+        SecurityHashUtil securityHashUtil = mock(SecurityHashUtil.class);
+        when(securityHashUtil.decodeHashedUserId("admin")).thenReturn(1L);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        UserImportServiceImpl service = new UserImportServiceImpl(userRepository, mock(UserService.class),
+            mock(UserProjectionService.class), mock(UserSearchCounter.class), mock(UserSearchIndex.class),
+            securityHashUtil, new SnowflakeIdGenerator(1), passwordEncoder, jdbcTemplate, transactionManager,
+            new ObjectMapper(), 500, 1000);
+
+        String csv = """
+            user_code,username,email,password
+            ,alice,alice@example.com,secret1
+            ,Alice,alice2@example.com,secret1
+            ,bob,bob@example.com,
+            ,carol,carol@example.com,123
+            """;
+        UserImportResultDTO result = service.importUsers(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserExportFormat.CSV, "admin");
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(1, result.getCreatedCount());
+        assertEquals(3, result.getFailedCount());
+        assertEquals(List.of(3L, 4L, 5L), result.getErrors().stream().map(UserImportResultDTO.RowError::getLine).toList());
+        assertEquals(ErrorCodes.DUPLICATE_VALUE.getCode(), result.getErrors().get(0).getCode());
+        assertEquals(ErrorCodes.EMAIL_ALREADY_EXISTS.getCode(), result.getErrors().get(1).getCode());
+        assertEquals("password", result.getErrors().get(2).getField());
+        // Master, detail and credential batches for the one accepted row
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        verify(userRepository, times(1)).findTakenIdentifiers(any(), any(), any());
+    }
+}
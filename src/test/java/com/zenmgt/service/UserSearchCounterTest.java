@@ -0,0 +1,160 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.beans.PropertyDescriptor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSearchCounterTest {
+
+    private UserRepository userRepository;
+    private UserSearchCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.countByRecordStatus()).thenReturn(List.of(
+            Map.of("record_status", 0, "count", 3L),
+            Map.of("record_status", 1, "count", 10L),
+            Map.of("record_status", 5, "count", 2L)));
+        when(userRepository.countUsersWithRecordStatus(any(), any())).thenReturn(42L);
+        counter = new UserSearchCounter(userRepository, new SyncTaskExecutor(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEstimatesApplyBothStatusFilters() {
+        counter.resync();
+
+        assertEquals(new UserSearchCounter.SearchTotal(15, false), count(new UserSearchCriteria(), null));
+        assertEquals(10, count(new UserSearchCriteria(), 1).total());
+        assertEquals(13, count(statuses(RecordStatus.INACTIVE, RecordStatus.ACTIVE), null).total());
+        assertEquals(0, count(statuses(RecordStatus.INACTIVE), 1).total());
+        verify(userRepository, never()).countUsersWithRecordStatus(any(), any());
+    }
+
+    @Test
+    void testCountsExactlyUntilLoadedAndAfterMarkStale() {
+        assertEquals(new UserSearchCounter.SearchTotal(42, true), count(new UserSearchCriteria(), null));
+
+        counter.resync();
+        counter.markStale();
+        assertTrue(count(new UserSearchCriteria(), null).exact());
+
+        counter.resync();
+        assertFalse(count(new UserSearchCriteria(), null).exact());
+    }
+
+    @Test
+    void testFailedResyncKeepsCountingExactly() {
+        when(userRepository.countByRecordStatus()).thenThrow(new RuntimeException("down"));
+
+        counter.resync();
+
+        assertTrue(count(new UserSearchCriteria(), null).exact());
+    }
+
+    @Test
+    void testDisabledEstimatesNeverResync() {
+        counter = new UserSearchCounter(userRepository, new SyncTaskExecutor(), false);
+
+        counter.resync();
+
+        verify(userRepository, never()).countByRecordStatus();
+        assertTrue(count(new UserSearchCriteria(), null).exact());
+    }
+
+    @Test
+    void testRowFiltersAlwaysCountExactly() {
+        counter.resync();
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setUsername("alice");
+
+        assertEquals(new UserSearchCounter.SearchTotal(42, true), count(criteria, null));
+        verify(userRepository).countUsersWithRecordStatus(criteria, null);
+    }
+
+    @Test
+    void testTransitionsApplyAfterCommit() {
+        counter.resync();
+        TransactionSynchronizationManager.initSynchronization();
+
+        counter.recordTransition(1, 5);
+        counter.recordTransition(null, 1, 4);
+        assertEquals(10, count(new UserSearchCriteria(), 1).total());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(13, count(new UserSearchCriteria(), 1).total());
+        assertEquals(3, count(new UserSearchCriteria(), 5).total());
+        assertEquals(19, count(new UserSearchCriteria(), null).total());
+    }
+
+    @Test
+    void testTransitionsOutsideTransactionApplyImmediately() {
+        counter.resync();
+
+        counter.recordTransition(0, 1);
+
+        assertEquals(2, count(new UserSearchCriteria(), 0).total());
+        assertEquals(11, count(new UserSearchCriteria(), 1).total());
+    }
+
+    @Test
+    void testEverySearchFilterCountsAsRowFilter() throws Exception {
+        // Each criteria field UserRepository.SEARCH_FILTERS tests, except the status filters and the
+        // index result that only accompanies globalSearch, must make the search a filtered one
+        Set<String> notRowFilters = Set.of("recordStatusCodes", "matchedUserIds");
+        Matcher fields = Pattern.compile("q\\.(\\w+) != null").matcher(UserRepository.SEARCH_FILTERS);
+        int checked = 0;
+        while (fields.find()) {
+            String field = fields.group(1);
+            if (notRowFilters.contains(field)) {
+                continue;
+            }
+            UserSearchCriteria criteria = new UserSearchCriteria();
+            PropertyDescriptor property = new PropertyDescriptor(field, UserSearchCriteria.class);
+            property.getWriteMethod().invoke(criteria,
+                property.getPropertyType() == LocalDateTime.class ? LocalDateTime.now() : "x");
+            assertTrue(criteria.hasRowFilters(), field);
+            checked++;
+        }
+        assertEquals(8, checked);
+        assertFalse(new UserSearchCriteria().hasRowFilters());
+    }
+
+    private UserSearchCounter.SearchTotal count(UserSearchCriteria criteria, Integer recordStatus) {
+        return counter.countAsync(criteria, recordStatus).join();
+    }
+
+    private static UserSearchCriteria statuses(RecordStatus... statuses) {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setRecordStatuses(List.of(statuses));
+        return criteria;
+    }
+}
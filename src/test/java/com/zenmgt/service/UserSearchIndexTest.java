@@ -0,0 +1,43 @@
+package com.zenmgt.service;
+
+import com.zenmgt.enums.RecordStatus;
+import com.zenmgt.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UserSearchIndexTest {
+
+    @Test
+    void testRemovedUserNoLongerMatches() {
+        // The mocked stream loads nothing; rebuild only marks the index ready
+        UserSearchIndex index = new UserSearchIndex(mock(UserRepository.class), true, 100);
+        index.rebuild();
+        index.indexUser(1L, "alice01", "alice", "alice@example.com");
+        index.indexUser(2L, "alicia02", "alicia", "alicia@example.com");
+
+        index.removeUser(1L);
+
+        assertEquals(List.of(2L), index.search("ali"));
+    }
+
+    @Test
+    void testSearchesThatCanReturnDeletedUsersGoToSql() {
+        UserSearchIndex index = new UserSearchIndex(mock(UserRepository.class), true, 100);
+        index.rebuild();
+        index.indexUser(1L, "alice01", "alice", "alice@example.com");
+        int deleted = RecordStatus.DELETED.getCode();
+        int active = RecordStatus.ACTIVE.getCode();
+
+        assertNull(index.search("ali", null, null));
+        assertNull(index.search("ali", deleted, null));
+        assertNull(index.search("ali", null, List.of(active, deleted)));
+        assertEquals(List.of(1L), index.search("ali", active, null));
+        assertEquals(List.of(1L), index.search("ali", null, List.of(active)));
+        // Both filters apply, so either one ruling deleted users out is enough
+        assertEquals(List.of(1L), index.search("ali", active, List.of(deleted)));
+    }
+}
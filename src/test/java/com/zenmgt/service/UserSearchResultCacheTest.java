@@ -0,0 +1,69 @@
+package com.zenmgt.service;
+
+import com.zenmgt.dto.PagedResponseDTO;
+import com.zenmgt.dto.UserDTO;
+import com.zenmgt.dto.UserSearchCriteria;
+import com.zenmgt.enums.RecordStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchResultCacheTest {
+
+    @Test
+    void testEquivalentCriteriaShareAKey() {
+        UserSearchCriteria a = UserSearchCriteria.builder()
+            .username("  Alice ")
+            .recordStatuses(List.of(RecordStatus.PENDING_CREATE_APPROVAL, RecordStatus.ACTIVE))
+            .sortBy("unknownField")
+            .sortDirection("DESC")
+            .build();
+        UserSearchCriteria b = UserSearchCriteria.builder()
+            .username("alice")
+            .email("")
+            .recordStatuses(List.of(RecordStatus.ACTIVE, RecordStatus.PENDING_CREATE_APPROVAL))
+            .build();
+
+        assertEquals(UserSearchResultCache.keyOf(a, 0), UserSearchResultCache.keyOf(b, 0));
+    }
+
+    @Test
+    void testDifferentPagesOrSortsDoNotShareAKey() {
+        UserSearchCriteria first = UserSearchCriteria.builder().page(1).build();
+        UserSearchCriteria second = UserSearchCriteria.builder().page(2).build();
+        UserSearchCriteria ascending = UserSearchCriteria.builder().sortDirection("asc").build();
+
+        assertNotEquals(UserSearchResultCache.keyOf(first, 0), UserSearchResultCache.keyOf(second, 0));
+        assertNotEquals(UserSearchResultCache.keyOf(first, 0), UserSearchResultCache.keyOf(ascending, 0));
+    }
+
+    @Test
+    void testCaseIsKeptWhenCaseSensitive() {
+        UserSearchCriteria upper = UserSearchCriteria.builder().username("Alice").caseSensitive(true).build();
+        UserSearchCriteria lower = UserSearchCriteria.builder().username("alice").caseSensitive(true).build();
+
+        assertNotEquals(UserSearchResultCache.keyOf(upper, 0), UserSearchResultCache.keyOf(lower, 0));
+    }
+
+    @Test
+    void testRepeatedSearchIsServedFromCacheUntilInvalidated() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserSearchResultCache cache = new UserSearchResultCache(registry, true, Duration.ofMinutes(1), 100);
+        AtomicInteger searches = new AtomicInteger();
+        PagedResponseDTO<UserDTO> page = PagedResponseDTO.<UserDTO>builder().data(List.of()).total(0L).build();
+
+        cache.get(UserSearchCriteria.builder().username("alice").build(), () -> { searches.incrementAndGet(); return page; });
+        assertSame(page, cache.get(UserSearchCriteria.builder().username("ALICE").build(), () -> { searches.incrementAndGet(); return page; }));
+        assertEquals(1, searches.get());
+        assertEquals(0.5, registry.get("zenmgt.user_search_cache.hit_ratio").gauge().value(), 1e-9);
+
+        cache.invalidateAll();
+        cache.get(UserSearchCriteria.builder().username("alice").build(), () -> { searches.incrementAndGet(); return page; });
+        assertEquals(2, searches.get());
+    }
+}
@@ -0,0 +1,43 @@
+package com.zenmgt.util;
+
+import com.zenmgt.dto.UserSearchCursor;
+import com.zenmgt.enums.UserSortField;
+import com.zenmgt.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    private final CursorCodec codec = new CursorCodec("test-secret-key-for-hashing-and-jwt-operations");
+
+    @Test
+    void testRoundTripForEachKeyType() {
+        assertRoundTrip(new UserSearchCursor(UserSortField.CREATED_AT, true, LocalDateTime.of(2024, 5, 1, 12, 30, 15), 101L));
+        assertRoundTrip(new UserSearchCursor(UserSortField.RECORD_STATUS, false, 1, 102L));
+        assertRoundTrip(new UserSearchCursor(UserSortField.USERNAME, false, "alice|smith", 103L));
+        assertRoundTrip(new UserSearchCursor(UserSortField.LAST_LOGIN_AT, true, UserSortField.EARLIEST, 104L));
+    }
+
+    @Test
+    void testTamperedCursorIsRejected() {
+        String token = codec.encode(new UserSearchCursor(UserSortField.USER_CODE, false, "USER_001", 1L));
+        char[] chars = token.toCharArray();
+        chars[2] = chars[2] == 'A' ? 'B' : 'A';
+
+        assertThrows(ValidationException.class, () -> codec.decode(new String(chars)));
+        assertThrows(ValidationException.class, () -> codec.decode("not-a-cursor"));
+        assertThrows(ValidationException.class,
+            () -> new CursorCodec("another-secret").decode(token));
+    }
+
+    private void assertRoundTrip(UserSearchCursor cursor) {
+        UserSearchCursor decoded = codec.decode(codec.encode(cursor));
+        assertEquals(cursor.getSortField(), decoded.getSortField());
+        assertEquals(cursor.isDescending(), decoded.isDescending());
+        assertEquals(cursor.getValue(), decoded.getValue());
+        assertEquals(cursor.getId(), decoded.getId());
+    }
+}
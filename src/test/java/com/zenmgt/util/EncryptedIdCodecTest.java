@@ -0,0 +1,42 @@
+package com.zenmgt.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedIdCodecTest {
+
+    private final EncryptedIdCodec codec = new EncryptedIdCodec("test-secret-key-for-hashing-and-jwt-operations");
+
+    @Test
+    void testRoundTrip() {
+        for (long id : new long[] {0L, 1L, 123L, 1234567890123456789L, Long.MAX_VALUE}) {
+            String token = codec.encode("USER_", id);
+            assertEquals(22, token.length());
+            assertTrue(token.matches("^[A-Za-z0-9_-]+$"));
+            assertEquals(id, codec.decode("USER_", token));
+        }
+    }
+
+    @Test
+    void testDomainSeparation() {
+        String userToken = codec.encode("USER_", 123L);
+        String groupToken = codec.encode("GROUP_", 123L);
+
+        assertNotEquals(userToken, groupToken);
+        assertNull(codec.decode("GROUP_", userToken));
+        assertNull(codec.decode("USER_", groupToken));
+    }
+
+    @Test
+    void testRejectsTamperedAndForeignTokens() {
+        String token = codec.encode("USER_", 123L);
+        String tampered = token.substring(0, 5) + (token.charAt(5) == 'A' ? 'B' : 'A') + token.substring(6);
+
+        assertNull(codec.decode("USER_", tampered));
+        assertNull(codec.decode("USER_", new EncryptedIdCodec("another-secret").encode("USER_", 123L)));
+        assertNull(codec.decode("USER_", new HmacIdCodec("test-secret-key-for-hashing-and-jwt-operations").encode("USER_", 123L)));
+        assertNull(codec.decode("USER_", "not a token"));
+        assertNull(codec.decode("USER_", null));
+    }
+}
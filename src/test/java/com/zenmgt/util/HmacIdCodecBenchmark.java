@@ -0,0 +1,71 @@
+package com.zenmgt.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original per-call HMAC (Mac.getInstance + new SecretKeySpec per hash)
+ * with the thread-local engine in HmacIdCodec, over the SecurityHashUtilTest user IDs.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.zenmgt.util.HmacIdCodecBenchmark
+ * Add -prof gc (via OptionsBuilder.addProfiler) to see allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HmacIdCodecBenchmark {
+
+    private static final String SECRET_KEY = "test-secret-key-for-hashing-and-jwt-operations";
+    private static final long[] USER_IDS = {123L, 456L, 789L, 100L, 200L, 300L, 400L, 500L, 600L};
+
+    private HmacIdCodec codec;
+
+    @Setup
+    public void setUp() {
+        codec = new HmacIdCodec(SECRET_KEY);
+    }
+
+    @Benchmark
+    public void legacyPerCallMac(Blackhole blackhole) throws Exception {
+        for (long id : USER_IDS) {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] hashBytes = mac.doFinal(("USER_" + id).getBytes(StandardCharsets.UTF_8));
+            blackhole.consume(Base64.getUrlEncoder().withoutPadding().encodeToString(hashBytes));
+        }
+    }
+
+    @Benchmark
+    public void threadLocalEngine(Blackhole blackhole) {
+        for (long id : USER_IDS) {
+            blackhole.consume(codec.encode("USER_", id));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(HmacIdCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,39 @@
+package com.zenmgt.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HmacIdCodecTest {
+
+    private static final String SECRET_KEY = "test-secret-key-for-hashing-and-jwt-operations";
+
+    private final HmacIdCodec codec = new HmacIdCodec(SECRET_KEY);
+
+    @Test
+    void testMatchesReferenceHmac() throws Exception {
+        long[] ids = {0L, 9L, 10L, 123L, 456L, 789L, 100L, 200L, 300L, 400L, 500L, 600L,
+            -1L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long id : ids) {
+            assertEquals(referenceHash("USER_" + id), codec.encode("USER_", id));
+            assertEquals(referenceHash("GROUP_" + id), codec.encode("GROUP_", id));
+        }
+    }
+
+    @Test
+    void testIsOneWay() {
+        assertFalse(codec.isReversible());
+        assertNull(codec.decode("USER_", codec.encode("USER_", 123L)));
+    }
+
+    private static String referenceHash(String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+}
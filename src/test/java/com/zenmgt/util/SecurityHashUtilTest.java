@@ -8,6 +8,10 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -245,4 +249,47 @@ class SecurityHashUtilTest {
         // Different IDs should produce different hashes
         assertNotEquals(hash1, hash2);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testReverseIndexRegisterAndEvict() {
+        Long userId = 999L;
+        String hash = securityHashUtil.hashUserId(userId);
+        
+        // Registered IDs resolve from the index without a matching row
+        securityHashUtil.registerUserId(userId);
+        assertEquals(userId, securityHashUtil.decodeHashedUserId(hash));
+        
+        // Evicted IDs no longer resolve
+        securityHashUtil.evictUserId(userId);
+        assertNull(securityHashUtil.decodeHashedUserId(hash));
+    }
+
+    @Test
+    void testBatchHashingMatchesSingleHashing() {
+        Map<Long, String> hashes = securityHashUtil.hashUserIds(Arrays.asList(123L, 456L, 123L, null, 789L));
+        
+        // Distinct, non-null IDs only, each hashed exactly as hashUserId would
+        assertEquals(3, hashes.size());
+        assertEquals(securityHashUtil.hashUserId(123L), hashes.get(123L));
+        assertEquals(securityHashUtil.hashUserId(456L), hashes.get(456L));
+        assertEquals(securityHashUtil.hashUserId(789L), hashes.get(789L));
+        
+        assertTrue(securityHashUtil.hashUserIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void testBatchDecodingMatchesSingleDecoding() {
+        String hash123 = securityHashUtil.hashUserId(123L);
+        String hash456 = securityHashUtil.hashUserId(456L);
+        
+        Map<String, Long> decoded = securityHashUtil.decodeHashedUserIds(
+            Arrays.asList(hash456, "invalid-hash", hash123, null, "", hash456));
+        
+        // Decodable IDs only, once each, in request order
+        assertEquals(List.of(hash456, hash123), List.copyOf(decoded.keySet()));
+        assertEquals(456L, decoded.get(hash456));
+        assertEquals(123L, decoded.get(hash123));
+        
+        assertTrue(securityHashUtil.decodeHashedUserIds(List.of()).isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.zenmgt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    @Test
+    void testFindsSubstringInAnyFieldCaseInsensitively() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "alice", "USR001", "alice@example.com");
+        index.put(2L, "bob", "USR002", "bob@corp.io");
+
+        assertEquals(List.of(2L), index.search("CORP", 10));
+        assertEquals(List.of(1L), index.search("r001", 10));
+        assertEquals(List.of(1L, 2L), index.search("usr", 10));
+        assertEquals(List.of(), index.search("carol", 10));
+    }
+
+    @Test
+    void testRanksExactThenPrefixThenSubstring() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "the-admin", "USR001", "x@example.com");
+        index.put(2L, "administrator", "USR002", "y@example.com");
+        index.put(3L, "admin", "USR003", "z@example.com");
+        index.put(4L, "sysadmins", "USR004", "w@example.com");
+
+        assertEquals(List.of(3L, 2L, 1L, 4L), index.search("admin", 10));
+    }
+
+    @Test
+    void testTrigramsDoNotSpanFields() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "ab", "cd");
+
+        assertEquals(List.of(), index.search("abcd", 10));
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "oldname", "USR001", "old@example.com");
+        index.put(1L, "newname", "USR001", "new@example.com");
+
+        assertEquals(List.of(), index.search("oldname", 10));
+        assertEquals(List.of(1L), index.search("newname", 10));
+        assertEquals(1, index.size());
+
+        index.remove(1L);
+        assertEquals(List.of(), index.search("newname", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocuments() {
+        TrigramIndex index = new TrigramIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1_000; id++) {
+                index.put(id, "user" + id + "-r" + round, "USR" + id, "user" + id + "@example.com");
+            }
+        }
+
+        assertEquals(1_000, index.size());
+        assertEquals(List.of(42L), index.search("user42-r4", 10));
+        assertEquals(List.of(), index.search("user42-r3", 10));
+    }
+
+    @Test
+    void testShortOrBroadQueriesAreNotAnswered() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 0; id < 100; id++) {
+            index.put(id, "user" + id, "USR" + id, "user" + id + "@example.com");
+        }
+
+        assertNull(index.search("us", 10));
+        assertNull(index.search("example", 10));
+        assertEquals(100, index.search("example", 100).size());
+    }
+}